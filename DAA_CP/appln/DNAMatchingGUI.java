@@ -174,19 +174,10 @@ public class DNAMatchingGUI {
         });
     }
 
-    // Basic character-by-character matching for DNA sequences
+    // Packed matching for DNA sequences, 32 bases per comparison
     private String dnaMatch(String seq1, String seq2) {
-        int matches = 0;
-
-        // Compare character by character
-        for (int i = 0; i < seq1.length(); i++) {
-            if (seq1.charAt(i) == seq2.charAt(i)) {
-                matches++;
-            }
-        }
-
         // Calculate matching percentage
-        double matchPercentage = ((double) matches / seq1.length()) * 100;
+        double matchPercentage = PackedDna.pack(seq1).matchPercentage(PackedDna.pack(seq2));
         return String.format("Match Percentage: %.2f%%", matchPercentage);
     }
 }
@@ -0,0 +1,46 @@
+import benchmark.MatchingBenchmark;
+
+import java.util.List;
+
+// The engine side of benchmark.MatchingBenchmark, which cannot name default-package classes
+// itself. Each target keeps one counter, so a measured search allocates nothing of its own.
+public class BenchmarkEngines implements MatchingBenchmark.Engines {
+    @Override
+    public MatchingBenchmark.Target compile(String engine, String pattern) {
+        MatchEngine matchEngine = MatchEngine.valueOf(engine);
+        if (matchEngine.isMultiPattern()) {
+            throw new IllegalArgumentException(matchEngine.displayName() + " takes a pattern set");
+        }
+        return new CountingTarget(PatternCache.shared().compile(matchEngine, pattern));
+    }
+
+    @Override
+    public MatchingBenchmark.Target compileSet(String engine, List<String> patterns) {
+        MatchEngine matchEngine = MatchEngine.valueOf(engine);
+        if (!matchEngine.isMultiPattern()) {
+            throw new IllegalArgumentException(matchEngine.displayName() + " takes a single pattern");
+        }
+        return new CountingTarget(PatternCache.shared().compileSet(matchEngine, patterns));
+    }
+
+    private static final class CountingTarget implements MatchingBenchmark.Target, MatchSink {
+        private final TextMatcher matcher;
+        private long count;
+
+        CountingTarget(TextMatcher matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        public long search(String text) {
+            count = 0;
+            matcher.search(text, this);
+            return count;
+        }
+
+        @Override
+        public void onMatch(int start, int patternId) {
+            count++;
+        }
+    }
+}
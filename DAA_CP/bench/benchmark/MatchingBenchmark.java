@@ -0,0 +1,229 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// JMH suite for the matching engines across corpora, alphabets and pattern shapes. Each
+// invocation searches the whole corpus once, so the score is searches per second; the chars
+// and matches counters are reported as rates next to it, which makes chars/s / 10^6 the MB/s
+// (1 MB = 10^6 chars) and 10^9 / matches/s the ns per match. Build and run with:
+//   mvn -B package -DskipTests
+//   java -jar target/benchmarks.jar MatchingBenchmark -prof gc [-p corpus=dna] [-p size=1000000]
+// -prof gc adds the allocation rate and bytes allocated per search. With the simd profile, add
+// -jvmArgsAppend --add-modules=jdk.incubator.vector to measure the Vector API kernels.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatchingBenchmark {
+    private static final String[] WORDS = {
+            "the", "of", "and", "to", "in", "a", "is", "that", "for", "it", "as", "was", "with", "be", "by",
+            "on", "not", "he", "this", "are", "or", "his", "from", "at", "which", "but", "have", "an", "had",
+            "they", "you", "were", "their", "one", "all", "we", "can", "her", "has", "there", "been", "if",
+            "more", "when", "will", "would", "who", "so", "no", "string", "matching", "algorithm", "pattern",
+            "text", "search", "automaton", "sequence", "genome", "failure", "suffix", "prefix", "window"
+    };
+
+    // The engines are in the default package, which a named package cannot import, so they are
+    // reached through BenchmarkEngines, loaded by name the way SimdSupport loads VectorKernels
+    private static final Engines ENGINES = loadEngines();
+
+    public interface Engines {
+        Target compile(String engine, String pattern);
+
+        Target compileSet(String engine, List<String> patterns);
+    }
+
+    // One compiled matcher; search() returns the number of matches in text
+    public interface Target {
+        long search(String text);
+    }
+
+    @Benchmark
+    public long singlePattern(SinglePattern state, Counters counters) {
+        return counters.add(state.text, state.target.search(state.text));
+    }
+
+    @Benchmark
+    public long patternSet(PatternSet state, Counters counters) {
+        return counters.add(state.text, state.target.search(state.text));
+    }
+
+    // JMH wants @Param fields in a @State class; only the two subclasses below are instantiated
+    @State(Scope.Benchmark)
+    public abstract static class Corpus {
+        @Param({ "english", "dna", "random-bytes", "adversarial" })
+        public String corpus;
+
+        @Param("16000000")
+        public int size;
+
+        final Random random = new Random(42);
+        String text;
+
+        void generate() {
+            switch (corpus) {
+                case "english":
+                    text = englishText(size);
+                    break;
+                case "dna":
+                    text = alphabetText(size, "ACGT");
+                    break;
+                case "random-bytes":
+                    text = randomBytesText(size);
+                    break;
+                case "adversarial":
+                    text = "a".repeat(size);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown corpus: " + corpus);
+            }
+        }
+
+        private String englishText(int length) {
+            StringBuilder sb = new StringBuilder(length + 16);
+            while (sb.length() < length) {
+                // Squaring the draw skews towards the common words at the front of the list
+                double r = random.nextDouble();
+                sb.append(WORDS[(int) (r * r * WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+            }
+            return sb.substring(0, length);
+        }
+
+        private String alphabetText(int length, String alphabet) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            return new String(chars);
+        }
+
+        private String randomBytesText(int length) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) random.nextInt(256);
+            }
+            return new String(chars);
+        }
+    }
+
+    // The adversarial pattern is a^(m-1)b, which matches the all-'a' text up to its last char everywhere
+    @State(Scope.Benchmark)
+    public static class SinglePattern extends Corpus {
+        @Param({ "BOYER_MOORE", "HORSPOOL", "SUNDAY", "KMP", "Z_ALGORITHM" })
+        public String engine;
+
+        @Param({ "4", "16", "64", "256" })
+        public int length;
+
+        Target target;
+
+        @Setup(Level.Trial)
+        public void compile() {
+            generate();
+            String pattern = corpus.equals("adversarial")
+                    ? "a".repeat(length - 1) + "b"
+                    : text.substring(size / 2, size / 2 + length);
+            target = ENGINES.compile(engine, pattern);
+        }
+    }
+
+    // An engine that refuses a set (the DFA past its table limit) fails its setup, and JMH moves on
+    @State(Scope.Benchmark)
+    public static class PatternSet extends Corpus {
+        @Param({ "AHO_CORASICK", "AHO_CORASICK_DFA", "RABIN_KARP" })
+        public String engine;
+
+        @Param({ "10", "1000", "100000" })
+        public int setSize;
+
+        Target target;
+
+        @Setup(Level.Trial)
+        public void compile() {
+            generate();
+            List<String> patterns = corpus.equals("adversarial") ? adversarialSet() : sampledSet();
+            if (patterns.size() != setSize) {
+                System.out.printf("%s: %d distinct patterns for setSize=%d%n", corpus, patterns.size(), setSize);
+            }
+            target = ENGINES.compileSet(engine, patterns);
+        }
+
+        // Runs of 'a' ending in a distinct tail spelled in 'b'..'u', so every pattern differs but
+        // all of them match the all-'a' text for as long as possible before failing
+        private List<String> adversarialSet() {
+            int tail = 1;
+            for (long combinations = 20; combinations < setSize; combinations *= 20) {
+                tail++;
+            }
+            List<String> patterns = new ArrayList<>(setSize);
+            char[] digits = new char[tail];
+            for (int i = 0; i < setSize; i++) {
+                int length = Math.max(tail + 1, 8 + random.nextInt(9));
+                for (int d = tail - 1, value = i; d >= 0; d--, value /= 20) {
+                    digits[d] = (char) ('b' + value % 20);
+                }
+                patterns.add("a".repeat(length - tail) + new String(digits));
+            }
+            return patterns;
+        }
+
+        // Distinct substrings of the text; a small alphabet may run out of distinct short
+        // substrings first, so the set can come out smaller than asked for
+        private List<String> sampledSet() {
+            LinkedHashSet<String> patterns = new LinkedHashSet<>();
+            for (int attempt = 0; patterns.size() < setSize && attempt < 20 * setSize; attempt++) {
+                int length = 8 + random.nextInt(9);
+                int start = random.nextInt(text.length() - length);
+                patterns.add(text.substring(start, start + length));
+            }
+            return new ArrayList<>(patterns);
+        }
+    }
+
+    // Reported by JMH as rates alongside the score, per iteration
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long chars;
+        public long matches;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            chars = 0;
+            matches = 0;
+        }
+
+        long add(String text, long found) {
+            chars += text.length();
+            matches += found;
+            return found;
+        }
+    }
+
+    private static Engines loadEngines() {
+        try {
+            return (Engines) Class.forName("BenchmarkEngines").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkEngines is not on the class path", e);
+        }
+    }
+}
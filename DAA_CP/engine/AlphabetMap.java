@@ -0,0 +1,21 @@
+// Maps the chars that occur in a set of patterns onto dense symbol ids 1..size().
+// Symbol 0 is reserved for chars that do not occur in any pattern.
+final class AlphabetMap {
+    private final char[] symbols = new char[Character.MAX_VALUE + 1];
+    private int size = 0;
+
+    int add(char c) {
+        if (symbols[c] == 0) {
+            symbols[c] = (char) ++size;
+        }
+        return symbols[c];
+    }
+
+    int symbol(char c) {
+        return symbols[c];
+    }
+
+    int size() {
+        return size;
+    }
+}
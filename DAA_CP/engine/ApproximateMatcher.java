@@ -0,0 +1,153 @@
+import java.util.Arrays;
+
+// Bit-parallel approximate matching, 64 pattern positions per machine word.
+// MISMATCHES finds every occurrence within Hamming distance k with Shift-And extended to
+// k+1 state rows (Wu-Manber). EDITS finds every end position within edit distance k with
+// Myers' bit-vector algorithm, using Hyyro's block formulation for patterns over 64 chars.
+public class ApproximateMatcher {
+    public enum Mode {
+        MISMATCHES("Mismatches"), EDITS("Edits");
+
+        private final String displayName;
+
+        Mode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private final String pattern;
+    private final int maxErrors;
+    private final Mode mode;
+    private final AlphabetMap alphabet = new AlphabetMap();
+    private final int words;
+    private final long[] peq;   // words per symbol; bit i set where pattern[i] is that symbol
+
+    public ApproximateMatcher(String pattern, int maxErrors, Mode mode) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("Pattern must not be empty");
+        }
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("maxErrors must not be negative: " + maxErrors);
+        }
+        this.pattern = pattern;
+        this.maxErrors = maxErrors;
+        this.mode = mode;
+        int m = pattern.length();
+        this.words = (m + 63) >>> 6;
+        for (int i = 0; i < m; i++) {
+            alphabet.add(pattern.charAt(i));
+        }
+        this.peq = new long[(alphabet.size() + 1) * words];
+        for (int i = 0; i < m; i++) {
+            peq[alphabet.symbol(pattern.charAt(i)) * words + (i >>> 6)] |= 1L << (i & 63);
+        }
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    public int maxErrors() {
+        return maxErrors;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public void search(String text, ApproximateSink sink) {
+        search(text, 0, text.length(), sink);
+    }
+
+    // Reports occurrences lying entirely within text[from, to)
+    public void search(String text, int from, int to, ApproximateSink sink) {
+        if (mode == Mode.MISMATCHES) {
+            searchMismatches(text, from, to, sink);
+        } else {
+            searchEdits(text, from, to, sink);
+        }
+    }
+
+    // rows[d] holds bit i when pattern[0..i] ends at the current char with at most d mismatches
+    private void searchMismatches(String text, int from, int to, ApproximateSink sink) {
+        int m = pattern.length();
+        int k = Math.min(maxErrors, m);
+        long[][] rows = new long[k + 1][words];
+        int lastWord = (m - 1) >>> 6;
+        long lastBit = 1L << ((m - 1) & 63);
+        for (int i = from; i < to; i++) {
+            int base = alphabet.symbol(text.charAt(i)) * words;
+            for (int d = k; d >= 0; d--) {
+                long[] row = rows[d];
+                long[] below = d > 0 ? rows[d - 1] : null;
+                long carry = 1;
+                long belowCarry = 1;
+                for (int w = 0; w < words; w++) {
+                    long shifted = (row[w] << 1) | carry;
+                    carry = row[w] >>> 63;
+                    long next = shifted & peq[base + w];
+                    if (below != null) {
+                        next |= (below[w] << 1) | belowCarry;
+                        belowCarry = below[w] >>> 63;
+                    }
+                    row[w] = next;
+                }
+            }
+            if (i - from + 1 >= m) {
+                for (int d = 0; d <= k; d++) {
+                    if ((rows[d][lastWord] & lastBit) != 0) {
+                        sink.onMatch(i + 1, d);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Myers' algorithm: pv/mv hold the vertical +1/-1 deltas of the current DP column, and each
+    // block hands its horizontal delta on its top row to the block below it
+    private void searchEdits(String text, int from, int to, ApproximateSink sink) {
+        int m = pattern.length();
+        long[] pv = new long[words];
+        long[] mv = new long[words];
+        Arrays.fill(pv, -1L);
+        int lastShift = (m - 1) & 63;
+        int score = m;
+        for (int i = from; i < to; i++) {
+            int base = alphabet.symbol(text.charAt(i)) * words;
+            int hin = 0;
+            for (int w = 0; w < words; w++) {
+                long eq = peq[base + w];
+                long pvw = pv[w];
+                long mvw = mv[w];
+                long hinNegative = hin < 0 ? 1L : 0L;
+                long hinPositive = hin > 0 ? 1L : 0L;
+                long xv = eq | mvw;
+                eq |= hinNegative;
+                long xh = (((eq & pvw) + pvw) ^ pvw) | eq;
+                long ph = mvw | ~(xh | pvw);
+                long mh = pvw & xh;
+                int hout;
+                if (w == words - 1) {
+                    score += (int) ((ph >>> lastShift) & 1) - (int) ((mh >>> lastShift) & 1);
+                    hout = 0;
+                } else {
+                    hout = (int) (ph >>> 63) - (int) (mh >>> 63);
+                }
+                ph = (ph << 1) | hinPositive;
+                mh = (mh << 1) | hinNegative;
+                pv[w] = mh | ~(xv | ph);
+                mv[w] = ph & xv;
+                hin = hout;
+            }
+            if (score <= maxErrors) {
+                sink.onMatch(i + 1, score);
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+// Receives approximate matches: end is the exclusive end offset of the occurrence in the
+// text and errors the number of mismatches or edits it needed.
+@FunctionalInterface
+public interface ApproximateSink {
+    void onMatch(int end, int errors);
+}
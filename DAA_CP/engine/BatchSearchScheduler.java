@@ -0,0 +1,250 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Searches a stream of documents with one compiled matcher on a fixed pool of worker threads.
+// The matcher is compiled once by the caller and only read by the workers. At most
+// queueCapacity + 2 * threads documents are in flight, so submit() blocks when the producer
+// gets ahead; the queue has room for all of them, so it is the in-flight limit that blocks and
+// never the queue. Results are handed to the sink one at a time in submission order, through a
+// reorder buffer keyed by sequence number. awaitCompletion() finishes the batch; close() only
+// stops the workers and wakes blocked producers, so try-with-resources cleans up after an
+// early exit without hiding the batch's own failures.
+public class BatchSearchScheduler implements AutoCloseable {
+
+    // Receives each document's matches, in submission order and never concurrently
+    public interface ResultSink {
+        void onResult(long sequence, String documentId, MatchBuffer matches);
+    }
+
+    private static final Document END = new Document(-1, null, null);
+
+    private final TextMatcher matcher;
+    private final ResultSink sink;
+    private final BlockingQueue<Document> queue;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Thread[] workers;
+    // Guards sequencing and closed, and is the monitor awaitCompletion() waits on; emit() locks the scheduler
+    private final Object submitLock = new Object();
+    private final Map<Long, Result> pending = new HashMap<>();   // guarded by this, with failure
+    private volatile long nextSequence = 0;
+    private volatile long nextToEmit = 0;   // written under this
+    private boolean closed = false;
+    private volatile boolean stopped = false;
+    private Throwable failure;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong charsSearched = new AtomicLong();
+    private volatile int peakQueueDepth;
+
+    public BatchSearchScheduler(TextMatcher matcher, int threads, int queueCapacity, ResultSink sink) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        }
+        this.matcher = matcher;
+        this.sink = sink;
+        this.maxInFlight = queueCapacity + 2 * threads;
+        this.queue = new ArrayBlockingQueue<>(maxInFlight);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "batch-search-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    // Queues a document, blocking while the scheduler is at its in-flight limit; returns its sequence number
+    public long submit(String documentId, String text) throws InterruptedException {
+        inFlight.acquire();
+        long sequence;
+        synchronized (submitLock) {
+            if (closed) {
+                inFlight.release();
+                throw new IllegalStateException("Scheduler is closed");
+            }
+            sequence = nextSequence;
+            if (sequence == 0) {
+                startNanos = System.nanoTime();
+            }
+            nextSequence = sequence + 1;
+        }
+        // Outside the lock: the permit guarantees room, and the reorder buffer restores the order
+        // if another producer's later sequence number gets in first
+        queue.add(new Document(sequence, documentId, text));
+        peakQueueDepth = Math.max(peakQueueDepth, queue.size());
+        return sequence;
+    }
+
+    // Stops accepting documents, waits until every submitted one has been emitted and rethrows
+    // the first search failure, if any
+    public void awaitCompletion() throws InterruptedException, ExecutionException {
+        boolean first;
+        // Every sequence number handed out is queued and emitted before the workers are told to stop
+        synchronized (submitLock) {
+            first = !closed;
+            closed = true;
+            while (nextToEmit < nextSequence && !stopped) {
+                submitLock.wait();
+            }
+        }
+        if (first) {
+            for (int i = 0; i < workers.length; i++) {
+                queue.add(END);
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (finishNanos == 0) {
+            finishNanos = System.nanoTime();
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+        }
+    }
+
+    // Stops accepting documents and stops the workers without waiting for the queued ones,
+    // whose results are dropped; does nothing more once awaitCompletion() has returned.
+    // Producers blocked on the in-flight limit get their permit and the closed exception.
+    @Override
+    public void close() {
+        synchronized (submitLock) {
+            closed = true;
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            submitLock.notifyAll();
+        }
+        queue.clear();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        // The dropped documents never give their permits back; each woken producer returns the one it takes
+        inFlight.release(maxInFlight);
+    }
+
+    private void work() {
+        while (true) {
+            Document document;
+            try {
+                document = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (document == END) {
+                return;
+            }
+            MatchBuffer matches = new MatchBuffer();
+            Throwable error = null;
+            try {
+                matcher.search(document.text, matches);
+            } catch (RuntimeException | Error e) {
+                error = e;
+            }
+            charsSearched.addAndGet(document.text.length());
+            completed.incrementAndGet();
+            emit(document.sequence, new Result(document.id, matches, error));
+        }
+    }
+
+    // Parks a finished document and hands every result that is now next in line to the sink
+    private synchronized void emit(long sequence, Result result) {
+        pending.put(sequence, result);
+        Result next;
+        while ((next = pending.remove(nextToEmit)) != null) {
+            if (next.error != null) {
+                if (failure == null) {
+                    failure = next.error;
+                }
+            } else if (failure == null) {
+                try {
+                    sink.onResult(nextToEmit, next.documentId, next.matches);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            nextToEmit++;
+            inFlight.release();
+        }
+        synchronized (submitLock) {
+            submitLock.notifyAll();
+        }
+    }
+
+    public long documentsSubmitted() {
+        return nextSequence;
+    }
+
+    public long documentsCompleted() {
+        return completed.get();
+    }
+
+    public long charsSearched() {
+        return charsSearched.get();
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public int peakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    public synchronized int reorderBufferSize() {
+        return pending.size();
+    }
+
+    public double documentsPerSecond() {
+        if (nextSequence == 0) {
+            return 0.0;
+        }
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        double seconds = (end - startNanos) / 1e9;
+        return seconds > 0 ? completed.get() / seconds : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchSearchScheduler[threads=%d, submitted=%d, completed=%d, queue=%d, peakQueue=%d, reorder=%d, %.1f docs/s]",
+                workers.length, documentsSubmitted(), documentsCompleted(), queueDepth(), peakQueueDepth(),
+                reorderBufferSize(), documentsPerSecond());
+    }
+
+    private static final class Document {
+        final long sequence;
+        final String id;
+        final String text;
+
+        Document(long sequence, String id, String text) {
+            this.sequence = sequence;
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private static final class Result {
+        final String documentId;
+        final MatchBuffer matches;
+        final Throwable error;
+
+        Result(String documentId, MatchBuffer matches, Throwable error) {
+            this.documentId = documentId;
+            this.matches = matches;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+// Boyer-Moore with both the bad-character and the good-suffix rule.
+// On a mismatch the window moves by the larger of the two shifts, which lets long
+// patterns skip most of the text.
+public class BoyerMoorePattern implements CompiledPattern, CharArrayMatcher {
+    private final String pattern;
+    private final CharShiftTable badChar;   // last index of each char in the pattern, or -1
+    private final int[] goodSuffix;
+
+    public BoyerMoorePattern(String pattern) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        this.pattern = pattern;
+        this.badChar = preprocessBadChar(pattern);
+        this.goodSuffix = preprocessGoodSuffix(pattern);
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordBuild(MatchEngine.BOYER_MOORE, pattern.length(), 0, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return MatchEngine.BOYER_MOORE;
+    }
+
+    @Override
+    public String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, shifts = 0, skipDistance = 0, matches = 0;
+        int shift = from;
+        while (shift <= to - m) {
+            int j = m - 1;
+            while (j >= 0 && pattern.charAt(j) == text.charAt(shift + j)) {
+                j--;
+            }
+            int step;
+            if (j < 0) {
+                sink.onMatch(shift, 0);
+                matches++;
+                comparisons += m;
+                step = goodSuffix[0];
+            } else {
+                comparisons += m - j;
+                step = Math.max(goodSuffix[j], j - badChar.get(text.charAt(shift + j)));
+            }
+            shift += step;
+            shifts++;
+            skipDistance += step;
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.BOYER_MOORE, to - from, comparisons, shifts, skipDistance, 0,
+                    matches, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void search(char[] text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, shifts = 0, skipDistance = 0, matches = 0;
+        int shift = from;
+        while (shift <= to - m) {
+            int j = m - 1;
+            while (j >= 0 && pattern.charAt(j) == text[shift + j]) {
+                j--;
+            }
+            int step;
+            if (j < 0) {
+                sink.onMatch(shift, 0);
+                matches++;
+                comparisons += m;
+                step = goodSuffix[0];
+            } else {
+                comparisons += m - j;
+                step = Math.max(goodSuffix[j], j - badChar.get(text[shift + j]));
+            }
+            shift += step;
+            shifts++;
+            skipDistance += step;
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.BOYER_MOORE, to - from, comparisons, shifts, skipDistance, 0,
+                    matches, System.nanoTime() - startNanos);
+        }
+    }
+
+    private static CharShiftTable preprocessBadChar(String pattern) {
+        CharShiftTable badChar = new CharShiftTable(pattern.length(), -1);
+        for (int i = 0; i < pattern.length(); i++) {
+            badChar.put(pattern.charAt(i), i);
+        }
+        return badChar;
+    }
+
+    // goodSuffix[j] is the shift after a mismatch at j, once pattern[j+1..] has matched
+    private static int[] preprocessGoodSuffix(String pattern) {
+        int m = pattern.length();
+        int[] goodSuffix = new int[Math.max(1, m)];
+        if (m == 0) {
+            return goodSuffix;
+        }
+        int[] suffix = suffixes(pattern);
+        Arrays.fill(goodSuffix, m);
+        int j = 0;
+        for (int i = m - 1; i >= 0; i--) {
+            if (suffix[i] == i + 1) {
+                for (; j < m - 1 - i; j++) {
+                    if (goodSuffix[j] == m) {
+                        goodSuffix[j] = m - 1 - i;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i <= m - 2; i++) {
+            goodSuffix[m - 1 - suffix[i]] = m - 1 - i;
+        }
+        return goodSuffix;
+    }
+
+    // suffix[i] is the length of the longest substring ending at i that is also a suffix of the pattern
+    private static int[] suffixes(String pattern) {
+        int m = pattern.length();
+        int[] suffix = new int[m];
+        suffix[m - 1] = m;
+        int g = m - 1;
+        int f = 0;
+        for (int i = m - 2; i >= 0; i--) {
+            if (i > g && suffix[i + m - 1 - f] < i - g) {
+                suffix[i] = suffix[i + m - 1 - f];
+            } else {
+                if (i < g) {
+                    g = i;
+                }
+                f = i;
+                while (g >= 0 && pattern.charAt(g) == pattern.charAt(g + m - 1 - f)) {
+                    g--;
+                }
+                suffix[i] = f - g;
+            }
+        }
+        return suffix;
+    }
+}
@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event committed after every instrumented pattern preprocessing step
+@Name("daa.matching.Build")
+@Label("Pattern Preprocessing")
+@Category({ "DAA", "Matching" })
+@Description("Compilation of a pattern or pattern set by a matching engine")
+class BuildEvent extends jdk.jfr.Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Pattern Chars")
+    long patternChars;
+
+    @Label("Failure Links")
+    @Description("Failure-link steps taken while building the automaton")
+    long failureLinks;
+
+    @Label("Build Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long buildNanos;
+}
@@ -0,0 +1,78 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Aho-Corasick over the UTF-8 bytes of a pattern set, for scanning raw byte input.
+// Each pattern's bytes become a Latin-1 string (one char per byte) and are compiled into
+// an ordinary CompactAhoCorasick, so the byte engine shares its automaton, DFA mode and
+// instrumentation. Input bytes are widened to chars a small chunk at a time; nothing is
+// ever UTF-8 decoded. Offsets reported are byte offsets.
+public class ByteAhoCorasick {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final String[] patterns;
+    private final CompactAhoCorasick automaton;
+
+    private ByteAhoCorasick(String[] patterns, CompactAhoCorasick automaton) {
+        this.patterns = patterns;
+        this.automaton = automaton;
+    }
+
+    public static ByteAhoCorasick compile(Collection<String> patterns) {
+        return new ByteAhoCorasick(patterns.toArray(new String[0]), CompactAhoCorasick.compile(latin1(patterns)));
+    }
+
+    public static ByteAhoCorasick compileDfa(Collection<String> patterns) {
+        return new ByteAhoCorasick(patterns.toArray(new String[0]), CompactAhoCorasick.compileDfa(latin1(patterns)));
+    }
+
+    private static List<String> latin1(Collection<String> patterns) {
+        List<String> byteStrings = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            byteStrings.add(new String(pattern.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1));
+        }
+        return byteStrings;
+    }
+
+    public int patternCount() {
+        return patterns.length;
+    }
+
+    public String pattern(int id) {
+        return patterns[id];
+    }
+
+    // Length in bytes of the longest encoded pattern
+    public int maxPatternLength() {
+        return automaton.maxPatternLength();
+    }
+
+    public void search(byte[] bytes, StreamMatchSink sink) {
+        search(bytes, 0, bytes.length, sink);
+    }
+
+    // Reports every match lying entirely within bytes[from, to), at its index in the array
+    public void search(byte[] bytes, int from, int to, StreamMatchSink sink) {
+        scan(ByteBuffer.wrap(bytes), from, to, 0, 0, sink);
+    }
+
+    public void search(ByteBuffer buffer, StreamMatchSink sink) {
+        scan(buffer, buffer.position(), buffer.limit(), 0, 0, sink);
+    }
+
+    // Feeds buffer[from, to) through the automaton starting in the given state and returns
+    // the state to resume from; buffer index 0 sits at absolute position base
+    public int scan(ByteBuffer buffer, int from, int to, int state, long base, StreamMatchSink sink) {
+        char[] chunk = new char[Math.max(1, Math.min(CHUNK_SIZE, to - from))];
+        for (int position = from; position < to; position += chunk.length) {
+            int length = Math.min(chunk.length, to - position);
+            for (int i = 0; i < length; i++) {
+                chunk[i] = (char) (buffer.get(position + i) & 0xFF);
+            }
+            state = automaton.scan(chunk, length, state, base + position, sink);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,72 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Boyer-Moore (bad-character heuristic) over the UTF-8 bytes of a pattern,
+// for scanning raw byte input such as memory-mapped files
+public class ByteBoyerMoore {
+    private static final boolean VECTORIZED = SimdSupport.isVectorized();
+
+    private final String pattern;
+    private final byte[] bytes;
+    private final int[] badChar;
+
+    public ByteBoyerMoore(String pattern) {
+        this.pattern = pattern;
+        this.bytes = pattern.getBytes(StandardCharsets.UTF_8);
+        this.badChar = preprocessBadChar(bytes);
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    public void search(byte[] bytes, StreamMatchSink sink) {
+        search(ByteBuffer.wrap(bytes), 0, bytes.length, 0, sink);
+    }
+
+    // Reports every match lying entirely within buffer[from, to); buffer index 0 sits at
+    // absolute position base
+    public void search(ByteBuffer buffer, int from, int to, long base, StreamMatchSink sink) {
+        int m = bytes.length;
+        if (m == 0) {
+            return;
+        }
+        byte first = bytes[0];
+        byte last = bytes[m - 1];
+        int shift = from;
+        while (shift <= to - m) {
+            // With vector kernels, skip straight to the next window whose first and last bytes
+            // fit; the scalar candidate loop would read every byte, so the skips alone do better
+            if (VECTORIZED) {
+                shift = SimdSupport.KERNELS.indexOfCandidate(buffer, shift, to, first, last, m);
+                if (shift < 0) {
+                    return;
+                }
+            }
+            int j = m - 1;
+            while (j >= 0 && bytes[j] == buffer.get(shift + j)) {
+                j--;
+            }
+            if (j < 0) {
+                sink.onMatch(base + shift, 0);
+                shift += (shift + m < to) ? m - badChar[buffer.get(shift + m) & 0xFF] : 1;
+            } else {
+                shift += Math.max(1, j - badChar[buffer.get(shift + j) & 0xFF]);
+            }
+        }
+    }
+
+    private static int[] preprocessBadChar(byte[] pattern) {
+        int[] badChar = new int[256];
+        Arrays.fill(badChar, -1);
+        for (int i = 0; i < pattern.length; i++) {
+            badChar[pattern[i] & 0xFF] = i;
+        }
+        return badChar;
+    }
+}
@@ -0,0 +1,100 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Knuth-Morris-Pratt (KMP) over the UTF-8 bytes of a pattern, for scanning raw byte input
+public class ByteKmp {
+    private static final boolean VECTORIZED = SimdSupport.isVectorized();
+
+    private final String pattern;
+    private final byte[] bytes;
+    private final int[] lps;
+
+    public ByteKmp(String pattern) {
+        this.pattern = pattern;
+        this.bytes = pattern.getBytes(StandardCharsets.UTF_8);
+        this.lps = computeLPS(bytes);
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    public void search(byte[] bytes, StreamMatchSink sink) {
+        scan(ByteBuffer.wrap(bytes), 0, bytes.length, 0, 0, sink);
+    }
+
+    // Feeds buffer[from, to) through the automaton starting in the given state and returns
+    // the state to resume from; buffer index 0 sits at absolute position base
+    public int scan(ByteBuffer buffer, int from, int to, int state, long base, StreamMatchSink sink) {
+        int m = bytes.length;
+        if (m == 0) {
+            return 0;
+        }
+        int j = state;
+        byte first = bytes[0];
+        byte last = bytes[m - 1];
+        for (int i = from; i < to; i++) {
+            if (j == 0) {
+                if (VECTORIZED) {
+                    // Jump to the next position whose first and last bytes fit; near the end of
+                    // the buffer fall back to stepping, since a partial match may continue past it
+                    int candidate = SimdSupport.KERNELS.indexOfCandidate(buffer, i, to, first, last, m);
+                    if (candidate >= 0) {
+                        i = candidate;
+                    } else {
+                        i = Math.max(i, to - m + 1);
+                        if (i >= to) {
+                            break;
+                        }
+                    }
+                } else {
+                    // In the start state only the first byte can advance the automaton
+                    while (i < to && buffer.get(i) != first) {
+                        i++;
+                    }
+                    if (i == to) {
+                        break;
+                    }
+                }
+            }
+            byte b = buffer.get(i);
+            while (j > 0 && bytes[j] != b) {
+                j = lps[j - 1];
+            }
+            if (bytes[j] == b) {
+                j++;
+            }
+            if (j == m) {
+                sink.onMatch(base + i - m + 1, 0);
+                j = lps[j - 1];
+            }
+        }
+        return j;
+    }
+
+    private static int[] computeLPS(byte[] pattern) {
+        int m = pattern.length;
+        int[] lps = new int[m];
+        int len = 0;
+        int i = 1;
+        while (i < m) {
+            if (pattern[i] == pattern[len]) {
+                len++;
+                lps[i] = len;
+                i++;
+            } else {
+                if (len != 0) {
+                    len = lps[len - 1];
+                } else {
+                    lps[i] = 0;
+                    i++;
+                }
+            }
+        }
+        return lps;
+    }
+}
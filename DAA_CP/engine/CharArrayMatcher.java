@@ -0,0 +1,15 @@
+// Engines that can also search a char[] in place. StreamingSearch uses it to search its
+// carried-over window without copying every chunk into a new String.
+interface CharArrayMatcher {
+    // Reports every match lying entirely within text[from, to), at its index in text
+    void search(char[] text, int from, int to, MatchSink sink);
+
+    static boolean regionMatches(char[] text, int offset, String pattern, int patternOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (text[offset + i] != pattern.charAt(patternOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
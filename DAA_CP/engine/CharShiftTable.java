@@ -0,0 +1,48 @@
+import java.util.Arrays;
+
+// Shift table over the full char range: a dense array for Latin-1 and a small
+// open-addressing hash for the (usually few) pattern chars above it, so mixed-script
+// text never indexes past the table.
+final class CharShiftTable {
+    private final int defaultValue;
+    private final int[] latin1 = new int[256];
+    private final char[] keys;    // 0 marks an empty slot; Latin-1 chars never go here
+    private final int[] values;
+
+    CharShiftTable(int maxEntries, int defaultValue) {
+        this.defaultValue = defaultValue;
+        Arrays.fill(latin1, defaultValue);
+        int capacity = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+        keys = new char[capacity];
+        values = new int[capacity];
+    }
+
+    void put(char c, int value) {
+        if (c < 256) {
+            latin1[c] = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = (c * 0x9E37) & mask;
+        while (keys[i] != 0 && keys[i] != c) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = c;
+        values[i] = value;
+    }
+
+    int get(char c) {
+        if (c < 256) {
+            return latin1[c];
+        }
+        int mask = keys.length - 1;
+        int i = (c * 0x9E37) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == c) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,404 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+// Compact Aho-Corasick automaton for large pattern sets.
+// States are plain ints and every per-state table is a primitive array:
+// the goto function is stored as sorted edge lists (CSR layout) over a
+// remapped alphabet, with failure and output links as int[].
+//
+// save() writes the tables in the format MappedAhoCorasick searches without loading.
+//
+// compileDfa() also precomputes the complete transition function as one dense
+// int[states * (alphabet + 1)] table, so the scan does exactly one lookup per char
+// and never follows a failure link; outputs are still reached through outputLink,
+// the dictionary-suffix chain, so only real matches cost extra work.
+public class CompactAhoCorasick implements CompiledPatternSet {
+    // Largest dense table compileDfa() builds (128 MB of ints)
+    public static final long MAX_DFA_ENTRIES = 1L << 25;
+
+    private final String[] patterns;
+    private final AlphabetMap alphabet;
+    private final int[] rootNext;     // dense root transitions, 0 = stay at root
+    private final int[] edgeStart;    // edges of state s are [edgeStart[s], edgeStart[s + 1])
+    private final char[] edgeSymbol;  // sorted by symbol within each state
+    private final int[] edgeTarget;
+    private final int[] failure;
+    private final int[] output;       // pattern id ending at the state, or -1
+    private final int[] outputLink;   // nearest proper suffix state with an output, or -1
+    private final int maxPatternLength;
+    private final int[] delta;        // full transition table with stride alphabet.size() + 1, or null
+
+    private CompactAhoCorasick(String[] patterns, AlphabetMap alphabet, int[] rootNext, int[] edgeStart,
+                               char[] edgeSymbol, int[] edgeTarget, int[] failure, int[] output, int[] outputLink,
+                               int[] delta) {
+        this.patterns = patterns;
+        this.alphabet = alphabet;
+        this.rootNext = rootNext;
+        this.edgeStart = edgeStart;
+        this.edgeSymbol = edgeSymbol;
+        this.edgeTarget = edgeTarget;
+        this.failure = failure;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.delta = delta;
+        int longest = 0;
+        for (String pattern : patterns) {
+            longest = Math.max(longest, pattern.length());
+        }
+        this.maxPatternLength = longest;
+    }
+
+    public static CompactAhoCorasick compile(Collection<String> patternList) {
+        return compile(patternList, false);
+    }
+
+    // Throws IllegalArgumentException if the dense table would exceed MAX_DFA_ENTRIES
+    public static CompactAhoCorasick compileDfa(Collection<String> patternList) {
+        return compile(patternList, true);
+    }
+
+    private static CompactAhoCorasick compile(Collection<String> patternList, boolean dfa) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        String[] patterns = patternList.toArray(new String[0]);
+        AlphabetMap alphabet = new AlphabetMap();
+        int totalLength = 0;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                alphabet.add(pattern.charAt(i));
+            }
+            totalLength += pattern.length();
+        }
+
+        // Build the trie with a primitive (state, symbol) -> child map
+        LongIntHashMap children = new LongIntHashMap(totalLength);
+        int[] parent = new int[totalLength + 1];
+        char[] symbolOf = new char[totalLength + 1];
+        int[] output = new int[totalLength + 1];
+        output[0] = -1;
+        int states = 1;
+        for (int id = 0; id < patterns.length; id++) {
+            String pattern = patterns[id];
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int symbol = alphabet.symbol(pattern.charAt(i));
+                long key = ((long) node << 16) | symbol;
+                int child = children.get(key);
+                if (child < 0) {
+                    child = states++;
+                    children.put(key, child);
+                    parent[child] = node;
+                    symbolOf[child] = (char) symbol;
+                    output[child] = -1;
+                }
+                node = child;
+            }
+            if (output[node] < 0) {
+                output[node] = id;
+            }
+        }
+        children = null;
+
+        // Lay the edges out per parent, sorted by symbol (counting sort by symbol, then by parent)
+        int alphabetSize = alphabet.size();
+        int[] bySymbol = new int[alphabetSize + 2];
+        for (int s = 1; s < states; s++) {
+            bySymbol[symbolOf[s] + 1]++;
+        }
+        for (int a = 1; a < bySymbol.length; a++) {
+            bySymbol[a] += bySymbol[a - 1];
+        }
+        int[] sortedStates = new int[states - 1];
+        for (int s = 1; s < states; s++) {
+            sortedStates[bySymbol[symbolOf[s]]++] = s;
+        }
+        int[] edgeStart = new int[states + 1];
+        for (int s = 1; s < states; s++) {
+            edgeStart[parent[s] + 1]++;
+        }
+        for (int s = 0; s < states; s++) {
+            edgeStart[s + 1] += edgeStart[s];
+        }
+        int[] fill = new int[states];
+        System.arraycopy(edgeStart, 0, fill, 0, states);
+        char[] edgeSymbol = new char[states - 1];
+        int[] edgeTarget = new int[states - 1];
+        for (int s : sortedStates) {
+            int e = fill[parent[s]]++;
+            edgeSymbol[e] = symbolOf[s];
+            edgeTarget[e] = s;
+        }
+
+        // Renumber states in breadth-first order so the shallow states, which the
+        // failure links keep returning to, sit together at the front of every array
+        int[] order = new int[states];
+        int[] rank = new int[states];
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int s = order[head];
+            for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                rank[edgeTarget[e]] = tail;
+                order[tail++] = edgeTarget[e];
+            }
+        }
+        int[] bfsEdgeStart = new int[states + 1];
+        char[] bfsEdgeSymbol = new char[states - 1];
+        int[] bfsEdgeTarget = new int[states - 1];
+        int[] bfsOutput = new int[states];
+        int edges = 0;
+        for (int ns = 0; ns < states; ns++) {
+            int s = order[ns];
+            bfsOutput[ns] = output[s];
+            bfsEdgeStart[ns] = edges;
+            for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                bfsEdgeSymbol[edges] = edgeSymbol[e];
+                bfsEdgeTarget[edges++] = rank[edgeTarget[e]];
+            }
+        }
+        bfsEdgeStart[states] = edges;
+
+        int[] rootNext = new int[alphabetSize + 1];
+        for (int e = bfsEdgeStart[0]; e < bfsEdgeStart[1]; e++) {
+            rootNext[bfsEdgeSymbol[e]] = bfsEdgeTarget[e];
+        }
+        // The failure links and DFA table are filled in through a scratch instance; the automaton
+        // handed out is constructed afterwards, so its final fields publish the finished tables
+        // safely to the threads that share it through PatternCache
+        CompactAhoCorasick trie = new CompactAhoCorasick(patterns, alphabet, rootNext, bfsEdgeStart,
+                bfsEdgeSymbol, bfsEdgeTarget, new int[states], bfsOutput, new int[states], null);
+        long failureLinks = trie.buildFailureLinks();
+        CompactAhoCorasick automaton = new CompactAhoCorasick(patterns, alphabet, rootNext, bfsEdgeStart,
+                bfsEdgeSymbol, bfsEdgeTarget, trie.failure, bfsOutput, trie.outputLink, dfa ? trie.buildDfa() : null);
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordBuild(automaton.engine(), totalLength, failureLinks, System.nanoTime() - startNanos);
+        }
+        return automaton;
+    }
+
+    // Returns the number of failure links followed, for SearchMetrics
+    private long buildFailureLinks() {
+        long followed = 0;
+        int[] queue = new int[failure.length];
+        int head = 0, tail = 0;
+        outputLink[0] = -1;
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            int child = edgeTarget[e];
+            failure[child] = 0;
+            outputLink[child] = -1;
+            queue[tail++] = child;
+        }
+
+        while (head < tail) {
+            int current = queue[head++];
+            for (int e = edgeStart[current]; e < edgeStart[current + 1]; e++) {
+                int symbol = edgeSymbol[e];
+                int child = edgeTarget[e];
+                int link = failure[current];
+                int next;
+                while ((next = transition(link, symbol)) < 0) {
+                    link = failure[link];
+                    followed++;
+                }
+                failure[child] = next;
+                outputLink[child] = output[next] >= 0 ? next : outputLink[next];
+                queue[tail++] = child;
+            }
+        }
+        return followed;
+    }
+
+    // States are numbered breadth-first, so a state's failure target is always a smaller
+    // state whose row is already complete: a missing edge copies the failure state's entry
+    private int[] buildDfa() {
+        int stride = alphabet.size() + 1;
+        int states = failure.length;
+        if ((long) states * stride > MAX_DFA_ENTRIES) {
+            throw new IllegalArgumentException("DFA table of " + states + " states x " + stride
+                    + " symbols exceeds " + MAX_DFA_ENTRIES + " entries");
+        }
+        int[] table = new int[states * stride];
+        System.arraycopy(rootNext, 0, table, 0, stride);
+        for (int s = 1; s < states; s++) {
+            int row = s * stride;
+            System.arraycopy(table, failure[s] * stride, table, row, stride);
+            for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                table[row + edgeSymbol[e]] = edgeTarget[e];
+            }
+        }
+        return table;
+    }
+
+    // Goto function; returns -1 when a non-root state has no edge for the symbol
+    private int transition(int state, int symbol) {
+        if (state == 0) {
+            return rootNext[symbol];
+        }
+        int lo = edgeStart[state];
+        int hi = edgeStart[state + 1];
+        if (hi - lo <= 8) {
+            for (int e = lo; e < hi; e++) {
+                if (edgeSymbol[e] >= symbol) {
+                    return edgeSymbol[e] == symbol ? edgeTarget[e] : -1;
+                }
+            }
+            return -1;
+        }
+        hi--;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int s = edgeSymbol[mid];
+            if (s < symbol) {
+                lo = mid + 1;
+            } else if (s > symbol) {
+                hi = mid - 1;
+            } else {
+                return edgeTarget[mid];
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return delta != null ? MatchEngine.AHO_CORASICK_DFA : MatchEngine.AHO_CORASICK;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        if (delta != null) {
+            searchDfa(text, from, to, sink);
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long lookups = 0, failureLinks = 0, matches = 0;
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            int symbol = alphabet.symbol(text.charAt(i));
+            if (symbol == 0) {
+                state = 0;
+                continue;
+            }
+            int next;
+            while ((next = transition(state, symbol)) < 0) {
+                state = failure[state];
+                lookups++;
+                failureLinks++;
+            }
+            lookups++;
+            state = next;
+            for (int t = output[state] >= 0 ? state : outputLink[state]; t > 0; t = outputLink[t]) {
+                int id = output[t];
+                sink.onMatch(i - patterns[id].length() + 1, id);
+                matches++;
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.AHO_CORASICK, to - from, lookups, 0, 0, failureLinks, matches,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    // One table lookup per char; symbol 0 (a char outside every pattern) maps back to the root
+    private void searchDfa(String text, int from, int to, MatchSink sink) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long matches = 0;
+        int[] table = delta;
+        int stride = alphabet.size() + 1;
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = table[state * stride + alphabet.symbol(text.charAt(i))];
+            for (int t = output[state] >= 0 ? state : outputLink[state]; t > 0; t = outputLink[t]) {
+                int id = output[t];
+                sink.onMatch(i - patterns[id].length() + 1, id);
+                matches++;
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.AHO_CORASICK_DFA, to - from, to - from, 0, 0, 0, matches,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    // Feeds chunk[0, length) through the automaton starting in the given state and
+    // returns the state to resume from. chunk[0] sits at absolute position offset.
+    int scan(char[] chunk, int length, int state, long offset, StreamMatchSink sink) {
+        if (delta != null) {
+            return scanDfa(chunk, length, state, offset, sink);
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long lookups = 0, failureLinks = 0, matches = 0;
+        for (int i = 0; i < length; i++) {
+            int symbol = alphabet.symbol(chunk[i]);
+            if (symbol == 0) {
+                state = 0;
+                continue;
+            }
+            int next;
+            while ((next = transition(state, symbol)) < 0) {
+                state = failure[state];
+                lookups++;
+                failureLinks++;
+            }
+            lookups++;
+            state = next;
+            for (int t = output[state] >= 0 ? state : outputLink[state]; t > 0; t = outputLink[t]) {
+                int id = output[t];
+                sink.onMatch(offset + i - patterns[id].length() + 1, id);
+                matches++;
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.AHO_CORASICK, length, lookups, 0, 0, failureLinks, matches,
+                    System.nanoTime() - startNanos);
+        }
+        return state;
+    }
+
+    private int scanDfa(char[] chunk, int length, int state, long offset, StreamMatchSink sink) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long matches = 0;
+        int[] table = delta;
+        int stride = alphabet.size() + 1;
+        for (int i = 0; i < length; i++) {
+            state = table[state * stride + alphabet.symbol(chunk[i])];
+            for (int t = output[state] >= 0 ? state : outputLink[state]; t > 0; t = outputLink[t]) {
+                int id = output[t];
+                sink.onMatch(offset + i - patterns[id].length() + 1, id);
+                matches++;
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.AHO_CORASICK_DFA, length, length, 0, 0, 0, matches,
+                    System.nanoTime() - startNanos);
+        }
+        return state;
+    }
+
+    @Override
+    public int patternCount() {
+        return patterns.length;
+    }
+
+    @Override
+    public String pattern(int id) {
+        return patterns[id];
+    }
+
+    @Override
+    public int maxPatternLength() {
+        return maxPatternLength;
+    }
+
+    public int stateCount() {
+        return failure.length;
+    }
+
+    // Writes the compiled tables for MappedAhoCorasick.load(); the DFA table is included when present
+    public void save(Path file) throws IOException {
+        MappedAhoCorasick.write(file, patterns, alphabet, maxPatternLength, rootNext, edgeStart, edgeSymbol,
+                edgeTarget, failure, output, outputLink, delta);
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// A single pattern preprocessed once for one of the single-pattern engines,
+// so it can be searched for in any number of texts.
+public interface CompiledPattern extends TextMatcher {
+    String pattern();
+
+    @Override
+    default int patternCount() {
+        return 1;
+    }
+
+    @Override
+    default String pattern(int id) {
+        return pattern();
+    }
+
+    @Override
+    default int maxPatternLength() {
+        return pattern().length();
+    }
+
+    default List<Integer> findAll(String text) {
+        List<Integer> result = new ArrayList<>();
+        search(text, (start, patternId) -> result.add(start));
+        return result;
+    }
+}
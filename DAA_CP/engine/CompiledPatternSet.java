@@ -0,0 +1,11 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// A pattern set preprocessed once for a multi-pattern engine.
+public interface CompiledPatternSet extends TextMatcher {
+    default List<String> search(String text) {
+        List<String> results = new ArrayList<>();
+        search(text, (start, patternId) -> results.add("Pattern found at index " + start + ": " + pattern(patternId)));
+        return results;
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+// Per-engine cost coefficients for EnginePlanner, measured on this machine by a short
+// micro-benchmark. Skip-based engines (Boyer-Moore, Horspool, Sunday) are charged per
+// window and divide by the expected shift; the linear engines are charged per text char.
+// Build costs are ns per compiled pattern char. Run at install time with
+//   java EngineCostModel [file]
+// which writes the properties file that installed() picks up; until then the built-in
+// defaults are used.
+public final class EngineCostModel {
+    public static final String FILE_PROPERTY = "matching.costs";
+
+    private static final int CALIBRATION_SIZE = 1 << 20;
+    private static volatile EngineCostModel installed;
+
+    private final Map<MatchEngine, Double> scan = new EnumMap<>(MatchEngine.class);
+    private final Map<MatchEngine, Double> build = new EnumMap<>(MatchEngine.class);
+
+    private EngineCostModel() {
+    }
+
+    public static EngineCostModel defaults() {
+        EngineCostModel model = new EngineCostModel();
+        model.set(MatchEngine.AHO_CORASICK, 26.0, 310.0);
+        model.set(MatchEngine.AHO_CORASICK_DFA, 4.5, 320.0);
+        model.set(MatchEngine.RABIN_KARP, 25.0, 10.0);
+        model.set(MatchEngine.BOYER_MOORE, 10.5, 33.0);
+        model.set(MatchEngine.HORSPOOL, 8.0, 45.0);
+        model.set(MatchEngine.SUNDAY, 8.5, 22.0);
+        model.set(MatchEngine.KMP, 7.0, 4.0);
+        model.set(MatchEngine.Z_ALGORITHM, 6.0, 4.0);
+        return model;
+    }
+
+    // The calibrated model from defaultPath(), or the defaults if none was written
+    public static EngineCostModel installed() {
+        EngineCostModel model = installed;
+        if (model == null) {
+            model = defaults();
+            Path file = defaultPath();
+            if (Files.isRegularFile(file)) {
+                try {
+                    model = load(file);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("EngineCostModel: ignoring " + file + ": " + e.getMessage());
+                }
+            }
+            installed = model;
+        }
+        return model;
+    }
+
+    public static Path defaultPath() {
+        String configured = System.getProperty(FILE_PROPERTY);
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".daa-matching", "engine-costs.properties");
+    }
+
+    public double scanCost(MatchEngine engine) {
+        return scan.get(engine);
+    }
+
+    public double buildCost(MatchEngine engine) {
+        return build.get(engine);
+    }
+
+    private void set(MatchEngine engine, double scanCost, double buildCost) {
+        scan.put(engine, scanCost);
+        build.put(engine, buildCost);
+    }
+
+    public static EngineCostModel load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        EngineCostModel model = defaults();
+        for (MatchEngine engine : MatchEngine.values()) {
+            String scanValue = properties.getProperty(engine.name() + ".scan");
+            String buildValue = properties.getProperty(engine.name() + ".build");
+            if (scanValue != null) {
+                model.scan.put(engine, Double.parseDouble(scanValue));
+            }
+            if (buildValue != null) {
+                model.build.put(engine, Double.parseDouble(buildValue));
+            }
+        }
+        return model;
+    }
+
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        // Locale.ROOT so a comma-decimal default locale still writes what Double.parseDouble reads back
+        for (MatchEngine engine : scan.keySet()) {
+            properties.setProperty(engine.name() + ".scan", String.format(Locale.ROOT, "%.4f", scan.get(engine)));
+            properties.setProperty(engine.name() + ".build", String.format(Locale.ROOT, "%.4f", build.get(engine)));
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Matching engine cost model (ns per window / per char, ns per pattern char)");
+        }
+    }
+
+    // Times every engine on random DNA-like and English-like text. Skip engines are normalised
+    // by their expected shift on the same text so one coefficient covers all alphabets.
+    public static EngineCostModel calibrate() {
+        Random random = new Random(7);
+        EngineCostModel model = new EngineCostModel();
+        int[][] shapes = { { 4, 8 }, { 26, 16 } };   // alphabet size, pattern length
+        for (MatchEngine engine : MatchEngine.values()) {
+            double scanTotal = 0;
+            double buildTotal = 0;
+            for (int[] shape : shapes) {
+                String text = randomText(random, CALIBRATION_SIZE, shape[0]);
+                String pattern = randomText(random, shape[1], shape[0]);
+                TextMatcher matcher;
+                int patternChars;
+                if (engine.isMultiPattern()) {
+                    List<String> patterns = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        patterns.add(randomText(random, shape[1], shape[0]));
+                    }
+                    patternChars = 100 * shape[1];
+                    buildTotal += time(() -> PatternCache.createSet(engine, patterns), 200) / patternChars;
+                    matcher = PatternCache.createSet(engine, patterns);
+                } else {
+                    patternChars = shape[1];
+                    buildTotal += time(() -> PatternCache.create(engine, pattern), 20_000) / patternChars;
+                    matcher = PatternCache.create(engine, pattern);
+                }
+                double perChar = time(() -> matcher.search(text, (start, patternId) -> { }), 1) / text.length();
+                scanTotal += EnginePlanner.isSkipEngine(engine)
+                        ? perChar * EnginePlanner.expectedShift(engine, pattern, text, shape[0])
+                        : perChar;
+            }
+            model.set(engine, scanTotal / shapes.length, buildTotal / shapes.length);
+        }
+        return model;
+    }
+
+    // Best of several timed batches of reps runs after a warm-up, in ns per run
+    private static double time(Runnable task, int reps) {
+        for (int i = 0; i < Math.max(10, 5 * reps); i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int batch = 0; batch < 7; batch++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < reps; i++) {
+                task.run();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / reps;
+    }
+
+    private static String randomText(Random random, int length, int alphabetSize) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(alphabetSize));
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("EngineCostModel[");
+        for (MatchEngine engine : scan.keySet()) {
+            if (sb.length() > "EngineCostModel[".length()) {
+                sb.append(", ");
+            }
+            sb.append(String.format("%s scan=%.2f build=%.2f", engine.displayName(), scan.get(engine), build.get(engine)));
+        }
+        return sb.append(']').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = args.length > 0 ? Path.of(args[0]) : defaultPath();
+        EngineCostModel model = calibrate();
+        model.save(file);
+        System.out.println(model);
+        System.out.println("Wrote " + file);
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Chooses the engine expected to be fastest for a search from the pattern count and
+// lengths, the text's alphabet (estimated from a leading sample), the text length and
+// whether the text is streamed. Each candidate's cost is its build cost plus the text
+// length times its per-char cost from the EngineCostModel; skip engines divide their
+// per-window cost by the shift they are expected to make on the sampled text. The
+// reasoning lists every candidate, cheapest total first.
+public final class EnginePlanner {
+    public static final int SAMPLE_SIZE = 1 << 16;
+
+    private static final long UNKNOWN_LENGTH = 1L << 30;
+
+    // The chosen engine, its compiled matcher and a one-line account of the decision
+    public static final class Plan {
+        private final MatchEngine engine;
+        private final TextMatcher matcher;
+        private final String reasoning;
+
+        Plan(MatchEngine engine, TextMatcher matcher, String reasoning) {
+            this.engine = engine;
+            this.matcher = matcher;
+            this.reasoning = reasoning;
+        }
+
+        public MatchEngine engine() {
+            return engine;
+        }
+
+        public TextMatcher matcher() {
+            return matcher;
+        }
+
+        public String reasoning() {
+            return reasoning;
+        }
+
+        @Override
+        public String toString() {
+            return engine.displayName() + ": " + reasoning;
+        }
+    }
+
+    private final EngineCostModel model;
+
+    public EnginePlanner() {
+        this(EngineCostModel.installed());
+    }
+
+    public EnginePlanner(EngineCostModel model) {
+        this.model = model;
+    }
+
+    public Plan plan(List<String> patterns, String text) {
+        return plan(patterns, text, text.length(), false);
+    }
+
+    // sample is the start of the text (null if none can be read ahead); textLength is -1 if unknown
+    public Plan plan(List<String> patterns, CharSequence sample, long textLength, boolean streamed) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("No patterns to plan for");
+        }
+        int sampleLength = sample == null ? 0 : Math.min(sample.length(), SAMPLE_SIZE);
+        CharSequence window = sampleLength == 0 ? null : sample.subSequence(0, sampleLength);
+        BitSet alphabet = new BitSet(256);
+        int minLength = Integer.MAX_VALUE, maxLength = 0;
+        long patternChars = 0;
+        BitSet lengths = new BitSet();
+        for (String pattern : patterns) {
+            lengths.set(pattern.length());
+            for (int i = 0; i < pattern.length(); i++) {
+                alphabet.set(pattern.charAt(i));
+            }
+            minLength = Math.min(minLength, pattern.length());
+            maxLength = Math.max(maxLength, pattern.length());
+            patternChars += pattern.length();
+        }
+        for (int i = 0; i < sampleLength; i++) {
+            alphabet.set(window.charAt(i));
+        }
+        int alphabetSize = Math.max(alphabet.cardinality(), 1);
+        long n = textLength >= 0 ? textLength : UNKNOWN_LENGTH;
+
+        List<MatchEngine> candidates = new ArrayList<>();
+        for (MatchEngine engine : MatchEngine.values()) {
+            if (engine == MatchEngine.AHO_CORASICK_DFA
+                    && patternChars * (alphabetSize + 1) > CompactAhoCorasick.MAX_DFA_ENTRIES) {
+                continue;   // the dense table could not be built
+            }
+            if (patterns.size() == 1 || engine.isMultiPattern()) {
+                candidates.add(engine);
+            }
+        }
+        Map<MatchEngine, Double> perChar = new EnumMap<>(MatchEngine.class);
+        Map<MatchEngine, Double> total = new EnumMap<>(MatchEngine.class);
+        for (MatchEngine engine : candidates) {
+            double cost = model.scanCost(engine);
+            if (isSkipEngine(engine)) {
+                cost /= expectedShift(engine, patterns.get(0), window, alphabetSize);
+            }
+            if (engine == MatchEngine.RABIN_KARP) {
+                cost *= lengths.cardinality();   // one rolling hash per distinct pattern length
+            }
+            if (streamed && !isStateful(engine)) {
+                // Buffer-by-buffer streaming rescans the last (m - 1) chars of every buffer
+                cost *= 1.0 + (double) Math.max(0, maxLength - 1) / StreamingSearch.DEFAULT_BUFFER_SIZE;
+            }
+            perChar.put(engine, cost);
+            total.put(engine, model.buildCost(engine) * patternChars + cost * n);
+        }
+        candidates.sort(Comparator.comparingDouble(total::get));
+        MatchEngine best = candidates.get(0);
+
+        StringBuilder reasoning = new StringBuilder();
+        if (patterns.size() == 1) {
+            reasoning.append("1 pattern of length ").append(maxLength);
+        } else {
+            reasoning.append(patterns.size()).append(" patterns of length ").append(minLength).append("..").append(maxLength);
+        }
+        reasoning.append(", alphabet ").append(alphabetSize).append(window != null ? " (sampled)" : " (patterns only)")
+                .append(", ").append(textLength >= 0 ? String.format("%,d chars", textLength) : "unknown length")
+                .append(streamed ? ", streamed" : ", in memory").append(":");
+        for (MatchEngine engine : candidates) {
+            reasoning.append(' ').append(engine.displayName()).append(String.format(" %.2f ns/char", perChar.get(engine)));
+            if (isSkipEngine(engine)) {
+                reasoning.append(String.format(" (shift %.1f)", expectedShift(engine, patterns.get(0), window, alphabetSize)));
+            }
+            if (textLength >= 0) {
+                reasoning.append(String.format(" = %.1f us", total.get(engine) / 1e3));
+            }
+            reasoning.append(engine == candidates.get(candidates.size() - 1) ? "" : ",");
+        }
+
+        TextMatcher matcher = best.isMultiPattern()
+                ? PatternCache.shared().compileSet(best, patterns)
+                : PatternCache.shared().compile(best, patterns.get(0));
+        return new Plan(best, matcher, reasoning.toString());
+    }
+
+    static boolean isSkipEngine(MatchEngine engine) {
+        return engine == MatchEngine.BOYER_MOORE || engine == MatchEngine.HORSPOOL || engine == MatchEngine.SUNDAY;
+    }
+
+    // Engines that carry their automaton state across stream buffers instead of overlapping them
+    static boolean isStateful(MatchEngine engine) {
+        return engine == MatchEngine.KMP || engine == MatchEngine.AHO_CORASICK
+                || engine == MatchEngine.AHO_CORASICK_DFA;
+    }
+
+    // Average bad-character shift of a skip engine over the sample's chars, or over a uniform
+    // alphabet of the given size when there is no sample. Boyer-Moore is estimated with the
+    // Horspool table, which its good-suffix rule only improves on for repetitive patterns.
+    static double expectedShift(MatchEngine engine, String pattern, CharSequence sample, int alphabetSize) {
+        int m = pattern.length();
+        if (m == 0) {
+            return 1.0;
+        }
+        boolean sunday = engine == MatchEngine.SUNDAY;
+        int absent = sunday ? m + 1 : m;
+        CharShiftTable shift = new CharShiftTable(m, absent);
+        BitSet seen = new BitSet();
+        for (int i = 0; i < (sunday ? m : m - 1); i++) {
+            shift.put(pattern.charAt(i), sunday ? m - i : m - 1 - i);
+            seen.set(pattern.charAt(i));
+        }
+        if (sample != null && sample.length() > 0) {
+            long sum = 0;
+            for (int i = 0; i < sample.length(); i++) {
+                sum += shift.get(sample.charAt(i));
+            }
+            return (double) sum / sample.length();
+        }
+        int distinct = seen.cardinality();
+        int size = Math.max(alphabetSize, distinct);
+        long sum = (long) (size - distinct) * absent;
+        for (int c = seen.nextSetBit(0); c >= 0; c = seen.nextSetBit(c + 1)) {
+            sum += shift.get((char) c);
+        }
+        return (double) sum / size;
+    }
+}
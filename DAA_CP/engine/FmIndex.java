@@ -0,0 +1,465 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// FM-index over an A/C/G/T text: the BWT packed 2 bits per base, occurrence counts
+// checkpointed every occRate rows and the suffix array sampled every saRate text positions.
+// count() is a backward search costing O(m) rank queries whatever the text length; locate()
+// walks LF-mapping steps back to the nearest sampled position. Every table is a primitive
+// buffer, so an index saved with save() is searched straight out of the mapped file.
+//
+// Any other symbol (N runs, IUPAC ambiguity codes) is a gap: it sorts after T, sits in the BWT
+// as an A flagged in the gap bit vector, and no pattern matches it or across it. Bases are
+// case-insensitive, so soft-masked lower-case sequence is indexed like upper case.
+//
+// Limits: positions are ints and build() holds the whole suffix array in memory, so one index
+// covers at most 2^31 - 2 bases (about 2.1 Gb) and building takes roughly 15 bytes of heap
+// per base. A larger genome, such as a 3.1 Gb human assembly, has to be indexed per chromosome
+// or in segments, with one index each.
+public class FmIndex {
+    public static final int DEFAULT_OCC_RATE = 128;
+    public static final int DEFAULT_SA_RATE = 32;
+
+    private static final int MAGIC = 0x464D4958;   // "FMIX"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 80;
+    private static final int GAP = 5;              // symbol of a gap in the SA-IS input, after T
+    private static final long EVEN_BITS = 0x5555555555555555L;
+
+    private final int rows;            // text length + 1 for the sentinel
+    private final int primary;         // row whose BWT char is the sentinel (stored as A)
+    private final int occRate;
+    private final int saRate;
+    private final int[] charStart;     // C array: first row of each base's block, then of the gaps
+    private final LongBuffer bwt;      // 32 bases per long
+    private final IntBuffer occ;       // 4 counts per checkpoint, for rows before it
+    private final LongBuffer sampled;  // one bit per row whose suffix array entry is sampled
+    private final IntBuffer sampledRank;  // sampled rows before each 64-row word
+    private final IntBuffer samples;   // text positions of the sampled rows, in row order
+    private final LongBuffer gaps;     // one bit per row whose BWT char is a gap (stored as A)
+    private final IntBuffer gapRank;   // gap rows before each 64-row word
+
+    private FmIndex(int rows, int primary, int occRate, int saRate, int[] charStart, LongBuffer bwt, IntBuffer occ,
+                    LongBuffer sampled, IntBuffer sampledRank, IntBuffer samples, LongBuffer gaps, IntBuffer gapRank) {
+        this.rows = rows;
+        this.primary = primary;
+        this.occRate = occRate;
+        this.saRate = saRate;
+        this.charStart = charStart;
+        this.bwt = bwt;
+        this.occ = occ;
+        this.sampled = sampled;
+        this.sampledRank = sampledRank;
+        this.samples = samples;
+        this.gaps = gaps;
+        this.gapRank = gapRank;
+    }
+
+    public static FmIndex build(CharSequence dna) {
+        return build(dna, DEFAULT_OCC_RATE, DEFAULT_SA_RATE);
+    }
+
+    public static FmIndex build(CharSequence dna, int occRate, int saRate) {
+        checkRates(occRate, saRate);
+        int n = checkLength(dna.length());
+        int[] s = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            s[i] = symbol(dna.charAt(i));
+        }
+        return build(s, occRate, saRate);
+    }
+
+    // The first length bytes of dna as ASCII, such as a sequence read by readFasta()
+    public static FmIndex build(byte[] dna, int length, int occRate, int saRate) {
+        checkRates(occRate, saRate);
+        int n = checkLength(length);
+        int[] s = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            s[i] = symbol((char) (dna[i] & 0xFF));
+        }
+        return build(s, occRate, saRate);
+    }
+
+    private static void checkRates(int occRate, int saRate) {
+        if (occRate < 32 || occRate % 32 != 0) {
+            throw new IllegalArgumentException("occRate must be a positive multiple of 32: " + occRate);
+        }
+        if (saRate < 1) {
+            throw new IllegalArgumentException("saRate must be positive: " + saRate);
+        }
+    }
+
+    private static int checkLength(int n) {
+        if (n > Integer.MAX_VALUE - 2) {
+            throw new IllegalArgumentException("Text too long for an FM-index: " + n);
+        }
+        return n;
+    }
+
+    // s holds the text as symbols 1-4 for A/C/G/T and GAP, then the 0 sentinel
+    private static FmIndex build(int[] s, int occRate, int saRate) {
+        int[] suffixArray = SuffixArrayIndex.suffixArray(s, GAP + 1);
+        int rows = s.length;
+
+        long[] bwt = new long[(rows + 31) >>> 5];
+        int[] occ = new int[(rows / occRate + 1) * 4];
+        long[] sampled = new long[(rows + 63) >>> 6];
+        // One word more than the rows need, so gapRank(rows) stays in bounds
+        long[] gaps = new long[(rows >>> 6) + 1];
+        int[] counts = new int[4];
+        int primary = 0;
+        int sampleCount = 0;
+        for (int row = 0; row < rows; row++) {
+            if (row % occRate == 0) {
+                System.arraycopy(counts, 0, occ, (row / occRate) * 4, 4);
+            }
+            int position = suffixArray[row];
+            if (position == 0) {
+                primary = row;
+            } else if (s[position - 1] == GAP) {
+                gaps[row >>> 6] |= 1L << (row & 63);
+            } else {
+                int code = s[position - 1] - 1;
+                bwt[row >>> 5] |= (long) code << ((row & 31) << 1);
+                counts[code]++;
+            }
+            if (position % saRate == 0) {
+                sampled[row >>> 6] |= 1L << (row & 63);
+                sampleCount++;
+            }
+        }
+        if (rows % occRate == 0) {
+            System.arraycopy(counts, 0, occ, (rows / occRate) * 4, 4);
+        }
+        int[] samples = new int[sampleCount];
+        for (int row = 0, i = 0; row < rows; row++) {
+            if (suffixArray[row] % saRate == 0) {
+                samples[i++] = suffixArray[row];
+            }
+        }
+        int[] sampledRank = new int[sampled.length];
+        for (int w = 1; w < sampled.length; w++) {
+            sampledRank[w] = sampledRank[w - 1] + Long.bitCount(sampled[w - 1]);
+        }
+        int[] gapRank = new int[gaps.length];
+        for (int w = 1; w < gaps.length; w++) {
+            gapRank[w] = gapRank[w - 1] + Long.bitCount(gaps[w - 1]);
+        }
+        int[] charStart = new int[5];
+        charStart[0] = 1;
+        for (int c = 1; c < 5; c++) {
+            charStart[c] = charStart[c - 1] + counts[c - 1];
+        }
+        return new FmIndex(rows, primary, occRate, saRate, charStart, LongBuffer.wrap(bwt), IntBuffer.wrap(occ),
+                LongBuffer.wrap(sampled), IntBuffer.wrap(sampledRank), IntBuffer.wrap(samples), LongBuffer.wrap(gaps),
+                IntBuffer.wrap(gapRank));
+    }
+
+    private static int symbol(char c) {
+        int code = code(c);
+        return code < 0 ? GAP : code + 1;
+    }
+
+    private static int code(char c) {
+        switch (c) {
+            case 'A': case 'a': return 0;
+            case 'C': case 'c': return 1;
+            case 'G': case 'g': return 2;
+            case 'T': case 't': return 3;
+            default: return -1;
+        }
+    }
+
+    public int length() {
+        return rows - 1;
+    }
+
+    public int count(String pattern) {
+        long range = backwardSearch(pattern);
+        return range < 0 ? 0 : (int) (range & 0xFFFFFFFFL) - (int) (range >>> 32);
+    }
+
+    // All positions where the pattern occurs, in ascending order
+    public int[] locate(String pattern) {
+        long range = backwardSearch(pattern);
+        if (range < 0) {
+            return new int[0];
+        }
+        int lo = (int) (range >>> 32);
+        int hi = (int) (range & 0xFFFFFFFFL);
+        int[] positions = new int[hi - lo];
+        for (int row = lo; row < hi; row++) {
+            positions[row - lo] = position(row);
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    // The [lo, hi) block of rows prefixed by the pattern packed as lo << 32 | hi, or -1 if empty
+    private long backwardSearch(String pattern) {
+        if (pattern.isEmpty()) {
+            return -1;
+        }
+        int lo = 0, hi = rows;
+        for (int i = pattern.length() - 1; i >= 0; i--) {
+            int c = code(pattern.charAt(i));
+            if (c < 0) {
+                return -1;
+            }
+            lo = charStart[c] + rank(c, lo);
+            hi = charStart[c] + rank(c, hi);
+            if (lo >= hi) {
+                return -1;
+            }
+        }
+        return ((long) lo << 32) | hi;
+    }
+
+    // Text position of the suffix at a row, via LF steps back to a sampled row
+    private int position(int row) {
+        int steps = 0;
+        while ((sampled.get(row >>> 6) & (1L << (row & 63))) == 0) {
+            if ((gaps.get(row >>> 6) & (1L << (row & 63))) != 0) {
+                row = charStart[4] + gapRank(row);
+            } else {
+                int c = baseAt(row);
+                row = charStart[c] + rank(c, row);
+            }
+            steps++;
+        }
+        int sample = sampledRank.get(row >>> 6) + Long.bitCount(sampled.get(row >>> 6) & ((1L << (row & 63)) - 1));
+        return samples.get(sample) + steps;
+    }
+
+    private int baseAt(int row) {
+        return (int) (bwt.get(row >>> 5) >>> ((row & 31) << 1)) & 3;
+    }
+
+    // Occurrences of base c among BWT rows [0, row)
+    private int rank(int c, int row) {
+        int checkpoint = row / occRate;
+        int count = occ.get(checkpoint * 4 + c);
+        long pattern = c * EVEN_BITS;
+        int from = checkpoint * occRate;
+        for (int w = from >>> 5; w < (row >>> 5); w++) {
+            long x = bwt.get(w) ^ pattern;
+            count += Long.bitCount(~(x | (x >>> 1)) & EVEN_BITS);
+        }
+        int tail = row & 31;
+        if (tail != 0) {
+            long x = bwt.get(row >>> 5) ^ pattern;
+            count += Long.bitCount(~(x | (x >>> 1)) & EVEN_BITS & ((1L << (tail << 1)) - 1));
+        }
+        if (c == 0) {
+            // The sentinel and the gaps are stored as A but are not A
+            if (primary >= from && primary < row) {
+                count--;
+            }
+            count -= gapRank(row) - gapRank(from);
+        }
+        return count;
+    }
+
+    // Gap rows among BWT rows [0, row)
+    private int gapRank(int row) {
+        return gapRank.get(row >>> 6) + Long.bitCount(gaps.get(row >>> 6) & ((1L << (row & 63)) - 1));
+    }
+
+    // Layout: an 80-byte header, then the BWT, occurrence, sampled-row, sampled-rank, sample, gap-row
+    // and gap-rank sections, each starting on an 8-byte boundary; all little-endian
+    public void save(Path file) throws IOException {
+        long[] sizes = { bwt.capacity() * 8L, occ.capacity() * 4L, sampled.capacity() * 8L,
+                sampledRank.capacity() * 4L, samples.capacity() * 4L, gaps.capacity() * 8L, gapRank.capacity() * 4L };
+        // load() maps the file in one piece, so refuse before creating a file it cannot read
+        long total = HEADER_BYTES;
+        for (long size : sizes) {
+            total += align(size);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("FM-index too large for a single mapping: " + total + " bytes");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(primary).putInt(occRate).putInt(saRate);
+        for (int c = 0; c < 5; c++) {
+            header.putInt(charStart[c]);
+        }
+        header.putInt(bwt.capacity()).putInt(occ.capacity()).putInt(sampled.capacity())
+                .putInt(sampledRank.capacity()).putInt(samples.capacity()).putInt(gaps.capacity())
+                .putInt(gapRank.capacity());
+        header.position(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, header);
+            for (int section = 0; section < sizes.length; section++) {
+                ByteBuffer bytes = ByteBuffer.allocate((int) align(sizes[section])).order(ByteOrder.LITTLE_ENDIAN);
+                switch (section) {
+                    case 0: bytes.asLongBuffer().put(bwt.duplicate().clear()); break;
+                    case 1: bytes.asIntBuffer().put(occ.duplicate().clear()); break;
+                    case 2: bytes.asLongBuffer().put(sampled.duplicate().clear()); break;
+                    case 3: bytes.asIntBuffer().put(sampledRank.duplicate().clear()); break;
+                    case 4: bytes.asIntBuffer().put(samples.duplicate().clear()); break;
+                    case 5: bytes.asLongBuffer().put(gaps.duplicate().clear()); break;
+                    default: bytes.asIntBuffer().put(gapRank.duplicate().clear()); break;
+                }
+                write(channel, bytes);
+            }
+        }
+    }
+
+    public static FmIndex load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not an FM-index: " + file);
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not an FM-index: " + file);
+            }
+            if (mapped.getInt(4) != VERSION) {
+                throw new IOException("Unsupported FM-index version " + mapped.getInt(4) + ": " + file);
+            }
+            int rows = mapped.getInt(8);
+            int primary = mapped.getInt(12);
+            int occRate = mapped.getInt(16);
+            int saRate = mapped.getInt(20);
+            int[] charStart = new int[5];
+            for (int c = 0; c < 5; c++) {
+                charStart[c] = mapped.getInt(24 + 4 * c);
+            }
+            int[] lengths = new int[7];
+            for (int i = 0; i < 7; i++) {
+                lengths[i] = mapped.getInt(44 + 4 * i);
+            }
+            int offset = HEADER_BYTES;
+            long expected = HEADER_BYTES + align(lengths[0] * 8L) + align(lengths[1] * 4L)
+                    + align(lengths[2] * 8L) + align(lengths[3] * 4L) + align(lengths[4] * 4L)
+                    + align(lengths[5] * 8L) + align(lengths[6] * 4L);
+            if (expected != channel.size()) {
+                throw new IOException("Truncated FM-index: " + file);
+            }
+            LongBuffer bwt = slice(mapped, offset, lengths[0] * 8).asLongBuffer();
+            offset += align(lengths[0] * 8L);
+            IntBuffer occ = slice(mapped, offset, lengths[1] * 4).asIntBuffer();
+            offset += align(lengths[1] * 4L);
+            LongBuffer sampled = slice(mapped, offset, lengths[2] * 8).asLongBuffer();
+            offset += align(lengths[2] * 8L);
+            IntBuffer sampledRank = slice(mapped, offset, lengths[3] * 4).asIntBuffer();
+            offset += align(lengths[3] * 4L);
+            IntBuffer samples = slice(mapped, offset, lengths[4] * 4).asIntBuffer();
+            offset += align(lengths[4] * 4L);
+            LongBuffer gaps = slice(mapped, offset, lengths[5] * 8).asLongBuffer();
+            offset += align(lengths[5] * 8L);
+            IntBuffer gapRank = slice(mapped, offset, lengths[6] * 4).asIntBuffer();
+            return new FmIndex(rows, primary, occRate, saRate, charStart, bwt, occ, sampled, sampledRank, samples,
+                    gaps, gapRank);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset).limit(offset + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java FmIndex build <sequence file> <index file> [occRate saRate]",
+            "       java FmIndex count <index file> <pattern>...",
+            "       java FmIndex locate <index file> <pattern>...",
+            "The sequence file holds bases, optionally as FASTA (header lines are skipped); N and other",
+            "non-A/C/G/T symbols are kept as gaps that no pattern matches across.",
+            "One index holds at most 2,147,483,645 bases (about 2.1 Gb) and building needs roughly",
+            "15 bytes of heap per base (-Xmx); index larger genomes per chromosome.");
+
+    // Streams the sequence into dna, at most the file's size, one byte per base: header lines and
+    // whitespace are dropped, everything else is kept as is. Returns the number of bases.
+    static int readFasta(Path input, byte[] dna) throws IOException {
+        int length = 0;
+        boolean lineStart = true;
+        boolean header = false;
+        byte[] chunk = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(input)) {
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = chunk[i];
+                    if (b == '\n') {
+                        lineStart = true;
+                        header = false;
+                        continue;
+                    }
+                    if (lineStart && b == '>') {
+                        header = true;
+                    }
+                    lineStart = false;
+                    if (!header && b > ' ') {
+                        if (length == dna.length) {
+                            throw new IOException(input + " grew while it was being read");
+                        }
+                        dna[length++] = b;
+                    }
+                }
+            }
+        }
+        return length;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        switch (args[0]) {
+            case "build": {
+                Path input = Path.of(args[1]);
+                if (Files.size(input) > Integer.MAX_VALUE - 2) {
+                    System.err.println("FmIndex: " + input + " is larger than one index can hold");
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+                byte[] dna = new byte[(int) Files.size(input)];
+                int length = readFasta(input, dna);
+                long start = System.nanoTime();
+                FmIndex index = args.length > 4
+                        ? build(dna, length, Integer.parseInt(args[3]), Integer.parseInt(args[4]))
+                        : build(dna, length, DEFAULT_OCC_RATE, DEFAULT_SA_RATE);
+                index.save(Path.of(args[2]));
+                System.out.printf("%,d bases indexed in %.1f s to %s%n", index.length(), (System.nanoTime() - start) / 1e9,
+                        args[2]);
+                break;
+            }
+            case "count":
+            case "locate": {
+                FmIndex index = load(Path.of(args[1]));
+                for (int i = 2; i < args.length; i++) {
+                    String pattern = args[i].toUpperCase();
+                    System.out.println(args[0].equals("count")
+                            ? pattern + ": " + index.count(pattern)
+                            : pattern + ": " + Arrays.toString(index.locate(pattern)));
+                }
+                break;
+            }
+            default:
+                System.err.println(USAGE);
+                System.exit(2);
+        }
+    }
+}
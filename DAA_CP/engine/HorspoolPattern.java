@@ -0,0 +1,94 @@
+// Boyer-Moore-Horspool: shifts on the text char aligned with the last pattern position
+public class HorspoolPattern implements CompiledPattern, CharArrayMatcher {
+    private final String pattern;
+    private final CharShiftTable shift;
+
+    public HorspoolPattern(String pattern) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        this.pattern = pattern;
+        int m = pattern.length();
+        this.shift = new CharShiftTable(m, Math.max(1, m));
+        for (int i = 0; i < m - 1; i++) {
+            shift.put(pattern.charAt(i), m - 1 - i);
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordBuild(MatchEngine.HORSPOOL, m, 0, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return MatchEngine.HORSPOOL;
+    }
+
+    @Override
+    public String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, shifts = 0, skipDistance = 0, matches = 0;
+        char last = pattern.charAt(m - 1);
+        int pos = from;
+        while (pos <= to - m) {
+            char c = text.charAt(pos + m - 1);
+            comparisons++;
+            if (c == last) {
+                if (SearchMetrics.ENABLED) {
+                    comparisons += SearchMetrics.comparedChars(text, pos, pattern, m - 1);
+                }
+                if (text.regionMatches(pos, pattern, 0, m - 1)) {
+                    sink.onMatch(pos, 0);
+                    matches++;
+                }
+            }
+            int step = shift.get(c);
+            pos += step;
+            shifts++;
+            skipDistance += step;
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.HORSPOOL, to - from, comparisons, shifts, skipDistance, 0,
+                    matches, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void search(char[] text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, shifts = 0, skipDistance = 0, matches = 0;
+        char last = pattern.charAt(m - 1);
+        int pos = from;
+        while (pos <= to - m) {
+            char c = text[pos + m - 1];
+            comparisons++;
+            if (c == last) {
+                if (SearchMetrics.ENABLED) {
+                    comparisons += SearchMetrics.comparedChars(text, pos, pattern, m - 1);
+                }
+                if (CharArrayMatcher.regionMatches(text, pos, pattern, 0, m - 1)) {
+                    sink.onMatch(pos, 0);
+                    matches++;
+                }
+            }
+            int step = shift.get(c);
+            pos += step;
+            shifts++;
+            skipDistance += step;
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.HORSPOOL, to - from, comparisons, shifts, skipDistance, 0,
+                    matches, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// Knuth-Morris-Pratt (KMP) with the LPS table computed once
+public class KmpPattern implements CompiledPattern {
+    private final String pattern;
+    private final int[] lps;
+
+    public KmpPattern(String pattern) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        this.pattern = pattern;
+        this.lps = computeLPS(pattern);
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordBuild(MatchEngine.KMP, pattern.length(), 0, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return MatchEngine.KMP;
+    }
+
+    @Override
+    public String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        if (pattern.isEmpty()) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, failureLinks = 0, matches = 0;
+        int i = from, j = 0;
+        while (i < to) {
+            comparisons++;
+            if (pattern.charAt(j) == text.charAt(i)) {
+                i++;
+                j++;
+            }
+            if (j == pattern.length()) {
+                sink.onMatch(i - j, 0);
+                matches++;
+                j = lps[j - 1];
+            } else if (i < to && pattern.charAt(j) != text.charAt(i)) {
+                comparisons++;
+                if (j != 0) {
+                    j = lps[j - 1];
+                    failureLinks++;
+                } else {
+                    i++;
+                }
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.KMP, to - from, comparisons, 0, 0, failureLinks, matches,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    // Feeds chunk[0, length) through the KMP automaton starting in the given state
+    // (the length of the current partial match) and returns the state to resume from.
+    // chunk[0] sits at absolute position offset.
+    int scan(char[] chunk, int length, int state, long offset, StreamMatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return 0;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, failureLinks = 0, matches = 0;
+        int j = state;
+        for (int i = 0; i < length; i++) {
+            char c = chunk[i];
+            while (j > 0 && pattern.charAt(j) != c) {
+                j = lps[j - 1];
+                comparisons++;
+                failureLinks++;
+            }
+            comparisons++;
+            if (pattern.charAt(j) == c) {
+                j++;
+            }
+            if (j == m) {
+                sink.onMatch(offset + i - m + 1, 0);
+                matches++;
+                j = lps[j - 1];
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.KMP, length, comparisons, 0, 0, failureLinks, matches,
+                    System.nanoTime() - startNanos);
+        }
+        return j;
+    }
+
+    private static int[] computeLPS(String pattern) {
+        int m = pattern.length();
+        int[] lps = new int[m];
+        int len = 0;
+        int i = 1;
+        while (i < m) {
+            if (pattern.charAt(i) == pattern.charAt(len)) {
+                len++;
+                lps[i] = len;
+                i++;
+            } else {
+                if (len != 0) {
+                    len = lps[len - 1];
+                } else {
+                    lps[i] = 0;
+                    i++;
+                }
+            }
+        }
+        return lps;
+    }
+}
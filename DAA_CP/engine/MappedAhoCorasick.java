@@ -0,0 +1,345 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// A CompactAhoCorasick automaton saved to disk and searched straight out of the mapped file.
+// load() reads the 64-byte header and maps each section read-only; nothing is parsed or
+// copied, so a large automaton is ready in milliseconds, pages are faulted in as the scan
+// touches them and every process that maps the same file shares them.
+//
+// Layout: the header, then these sections, each starting on an 8-byte boundary and all
+// little-endian:
+//   symbols       char[65536]              char -> symbol id, 0 = not in any pattern
+//   rootNext      int[alphabet + 1]
+//   edgeStart     int[states + 1]
+//   edgeSymbol    char[states - 1]
+//   edgeTarget    int[states - 1]
+//   failure       int[states]
+//   output        int[states]
+//   outputLink    int[states]
+//   patternStart  int[patterns + 1]        pattern id's chars are [patternStart[id], patternStart[id + 1])
+//   patternChars  char[total pattern length]
+//   delta         int[states * (alphabet + 1)], empty unless saved from compileDfa()
+public class MappedAhoCorasick implements CompiledPatternSet {
+    private static final int MAGIC = 0x41434155;   // "ACAU"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int FLAG_DFA = 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final int states;
+    private final int alphabetSize;
+    private final int patternCount;
+    private final int maxPatternLength;
+    private final CharBuffer symbols;
+    private final IntBuffer rootNext;
+    private final IntBuffer edgeStart;
+    private final CharBuffer edgeSymbol;
+    private final IntBuffer edgeTarget;
+    private final IntBuffer failure;
+    private final IntBuffer output;
+    private final IntBuffer outputLink;
+    private final IntBuffer patternStart;
+    private final CharBuffer patternChars;
+    private final IntBuffer delta;      // null unless saved with the full transition table
+
+    private MappedAhoCorasick(int states, int alphabetSize, int patternCount, int maxPatternLength,
+                              CharBuffer symbols, IntBuffer rootNext, IntBuffer edgeStart, CharBuffer edgeSymbol,
+                              IntBuffer edgeTarget, IntBuffer failure, IntBuffer output, IntBuffer outputLink,
+                              IntBuffer patternStart, CharBuffer patternChars, IntBuffer delta) {
+        this.states = states;
+        this.alphabetSize = alphabetSize;
+        this.patternCount = patternCount;
+        this.maxPatternLength = maxPatternLength;
+        this.symbols = symbols;
+        this.rootNext = rootNext;
+        this.edgeStart = edgeStart;
+        this.edgeSymbol = edgeSymbol;
+        this.edgeTarget = edgeTarget;
+        this.failure = failure;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.patternStart = patternStart;
+        this.patternChars = patternChars;
+        this.delta = delta;
+    }
+
+    // Called by CompactAhoCorasick.save() with its tables
+    static void write(Path file, String[] patterns, AlphabetMap alphabet, int maxPatternLength, int[] rootNext,
+                      int[] edgeStart, char[] edgeSymbol, int[] edgeTarget, int[] failure, int[] output,
+                      int[] outputLink, int[] delta) throws IOException {
+        char[] symbols = new char[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            symbols[c] = (char) alphabet.symbol((char) c);
+        }
+        int[] patternStart = new int[patterns.length + 1];
+        long totalLength = 0;
+        for (int id = 0; id < patterns.length; id++) {
+            totalLength += patterns[id].length();
+            if (totalLength > Integer.MAX_VALUE) {
+                throw new IOException("Pattern table too large to save: " + totalLength + " chars");
+            }
+            patternStart[id + 1] = (int) totalLength;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(failure.length).putInt(alphabet.size())
+                .putInt(patterns.length).putInt(maxPatternLength).putInt((int) totalLength)
+                .putInt(delta != null ? FLAG_DFA : 0);
+        header.position(0);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, header);
+            writeChars(channel, buffer, symbols);
+            endSection(channel, buffer, 2L * symbols.length);
+            writeInts(channel, buffer, rootNext);
+            writeInts(channel, buffer, edgeStart);
+            writeChars(channel, buffer, edgeSymbol);
+            endSection(channel, buffer, 2L * edgeSymbol.length);
+            writeInts(channel, buffer, edgeTarget);
+            writeInts(channel, buffer, failure);
+            writeInts(channel, buffer, output);
+            writeInts(channel, buffer, outputLink);
+            writeInts(channel, buffer, patternStart);
+            for (String pattern : patterns) {
+                writeChars(channel, buffer, pattern.toCharArray());
+            }
+            endSection(channel, buffer, 2L * totalLength);
+            if (delta != null) {
+                writeInts(channel, buffer, delta);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    public static MappedAhoCorasick load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a saved Aho-Corasick automaton: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a saved Aho-Corasick automaton: " + file);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported automaton version " + header.getInt(4) + ": " + file);
+            }
+            int states = header.getInt(8);
+            int alphabetSize = header.getInt(12);
+            int patternCount = header.getInt(16);
+            int maxPatternLength = header.getInt(20);
+            int totalLength = header.getInt(24);
+            boolean dfa = (header.getInt(28) & FLAG_DFA) != 0;
+            long deltaLength = dfa ? (long) states * (alphabetSize + 1) : 0;
+
+            long expected = HEADER_BYTES + align(2L * (Character.MAX_VALUE + 1)) + align(4L * (alphabetSize + 1))
+                    + align(4L * (states + 1)) + align(2L * (states - 1)) + align(4L * (states - 1))
+                    + 3 * align(4L * states) + align(4L * (patternCount + 1)) + align(2L * totalLength)
+                    + align(4L * deltaLength);
+            if (states < 1 || deltaLength > Integer.MAX_VALUE || expected != channel.size()) {
+                throw new IOException("Truncated or corrupt automaton: " + file);
+            }
+            long[] offset = { HEADER_BYTES };
+            CharBuffer symbols = map(channel, offset, 2L * (Character.MAX_VALUE + 1)).asCharBuffer();
+            IntBuffer rootNext = map(channel, offset, 4L * (alphabetSize + 1)).asIntBuffer();
+            IntBuffer edgeStart = map(channel, offset, 4L * (states + 1)).asIntBuffer();
+            CharBuffer edgeSymbol = map(channel, offset, 2L * (states - 1)).asCharBuffer();
+            IntBuffer edgeTarget = map(channel, offset, 4L * (states - 1)).asIntBuffer();
+            IntBuffer failure = map(channel, offset, 4L * states).asIntBuffer();
+            IntBuffer output = map(channel, offset, 4L * states).asIntBuffer();
+            IntBuffer outputLink = map(channel, offset, 4L * states).asIntBuffer();
+            IntBuffer patternStart = map(channel, offset, 4L * (patternCount + 1)).asIntBuffer();
+            CharBuffer patternChars = map(channel, offset, 2L * totalLength).asCharBuffer();
+            IntBuffer delta = dfa ? map(channel, offset, 4L * deltaLength).asIntBuffer() : null;
+            return new MappedAhoCorasick(states, alphabetSize, patternCount, maxPatternLength, symbols, rootNext,
+                    edgeStart, edgeSymbol, edgeTarget, failure, output, outputLink, patternStart, patternChars, delta);
+        }
+    }
+
+    // Each section gets its own mapping, so only a single section is limited to 2 GB
+    private static ByteBuffer map(FileChannel channel, long[] offset, long length) throws IOException {
+        ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, offset[0], length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        offset[0] += align(length);
+        return section;
+    }
+
+    // Goto function; returns -1 when a non-root state has no edge for the symbol
+    private int transition(int state, int symbol) {
+        if (state == 0) {
+            return rootNext.get(symbol);
+        }
+        int lo = edgeStart.get(state);
+        int hi = edgeStart.get(state + 1);
+        if (hi - lo <= 8) {
+            for (int e = lo; e < hi; e++) {
+                int s = edgeSymbol.get(e);
+                if (s >= symbol) {
+                    return s == symbol ? edgeTarget.get(e) : -1;
+                }
+            }
+            return -1;
+        }
+        hi--;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int s = edgeSymbol.get(mid);
+            if (s < symbol) {
+                lo = mid + 1;
+            } else if (s > symbol) {
+                hi = mid - 1;
+            } else {
+                return edgeTarget.get(mid);
+            }
+        }
+        return -1;
+    }
+
+    private int step(int state, char c) {
+        int symbol = symbols.get(c);
+        if (delta != null) {
+            return delta.get(state * (alphabetSize + 1) + symbol);
+        }
+        if (symbol == 0) {
+            return 0;
+        }
+        int next;
+        while ((next = transition(state, symbol)) < 0) {
+            state = failure.get(state);
+        }
+        return next;
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return delta != null ? MatchEngine.AHO_CORASICK_DFA : MatchEngine.AHO_CORASICK;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = step(state, text.charAt(i));
+            for (int t = output.get(state) >= 0 ? state : outputLink.get(state); t > 0; t = outputLink.get(t)) {
+                int id = output.get(t);
+                sink.onMatch(i - patternLength(id) + 1, id);
+            }
+        }
+    }
+
+    // Feeds chunk[0, length) through the automaton starting in the given state and
+    // returns the state to resume from. chunk[0] sits at absolute position offset.
+    int scan(char[] chunk, int length, int state, long offset, StreamMatchSink sink) {
+        for (int i = 0; i < length; i++) {
+            state = step(state, chunk[i]);
+            for (int t = output.get(state) >= 0 ? state : outputLink.get(state); t > 0; t = outputLink.get(t)) {
+                int id = output.get(t);
+                sink.onMatch(offset + i - patternLength(id) + 1, id);
+            }
+        }
+        return state;
+    }
+
+    private int patternLength(int id) {
+        return patternStart.get(id + 1) - patternStart.get(id);
+    }
+
+    @Override
+    public int patternCount() {
+        return patternCount;
+    }
+
+    @Override
+    public String pattern(int id) {
+        int start = patternStart.get(id);
+        char[] chars = new char[patternStart.get(id + 1) - start];
+        patternChars.get(start, chars);
+        return new String(chars);
+    }
+
+    @Override
+    public int maxPatternLength() {
+        return maxPatternLength;
+    }
+
+    public int stateCount() {
+        return states;
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        for (int value : values) {
+            if (buffer.remaining() < 4) {
+                flush(channel, buffer);
+            }
+            buffer.putInt(value);
+        }
+        endSection(channel, buffer, 4L * values.length);
+    }
+
+    private static void writeChars(FileChannel channel, ByteBuffer buffer, char[] values) throws IOException {
+        for (char value : values) {
+            if (buffer.remaining() < 2) {
+                flush(channel, buffer);
+            }
+            buffer.putChar(value);
+        }
+    }
+
+    // Pads the section just written out to the next 8-byte boundary
+    private static void endSection(FileChannel channel, ByteBuffer buffer, long sectionBytes) throws IOException {
+        if (buffer.remaining() < 8) {
+            flush(channel, buffer);
+        }
+        for (long i = sectionBytes; i < align(sectionBytes); i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        write(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    // Build step: java MappedAhoCorasick <pattern file, one per line> <automaton file> [dfa]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java MappedAhoCorasick <pattern file> <automaton file> [dfa]");
+            System.exit(2);
+        }
+        List<String> patterns = new ArrayList<>();
+        for (String line : Files.readAllLines(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                patterns.add(line);
+            }
+        }
+        long start = System.nanoTime();
+        CompactAhoCorasick automaton = args.length > 2 && args[2].equals("dfa")
+                ? CompactAhoCorasick.compileDfa(patterns) : CompactAhoCorasick.compile(patterns);
+        long built = System.nanoTime();
+        automaton.save(Path.of(args[1]));
+        System.out.printf("%d patterns, %d states: built in %.1f ms, saved in %.1f ms to %s%n", patterns.size(),
+                automaton.stateCount(), (built - start) / 1e6, (System.nanoTime() - built) / 1e6, args[1]);
+    }
+}
@@ -0,0 +1,73 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Searches files by memory-mapping them and scanning the mapped bytes directly, so no
+// String is ever built. A single mapping is limited to 2 GB, so larger files are mapped
+// as successive regions. Offsets reported are byte offsets into the file.
+public final class MappedFileSearch {
+    public static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+    private MappedFileSearch() {
+    }
+
+    public static long search(Path file, ByteBoyerMoore pattern, StreamMatchSink sink) throws IOException {
+        return search(file, pattern, DEFAULT_REGION_SIZE, sink);
+    }
+
+    // Regions overlap by (m - 1) bytes; each region only reports matches starting before its end
+    public static long search(Path file, ByteBoyerMoore pattern, int regionSize, StreamMatchSink sink) throws IOException {
+        int overlap = Math.max(0, pattern.length() - 1);
+        if (regionSize > Integer.MAX_VALUE - overlap) {
+            throw new IllegalArgumentException("Region size too large: " + regionSize);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += regionSize) {
+                int length = (int) Math.min((long) regionSize + overlap, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                pattern.search(region, 0, length, position, sink);
+            }
+            return size;
+        }
+    }
+
+    public static long search(Path file, ByteKmp pattern, StreamMatchSink sink) throws IOException {
+        return search(file, pattern, DEFAULT_REGION_SIZE, sink);
+    }
+
+    public static long search(Path file, ByteAhoCorasick patterns, StreamMatchSink sink) throws IOException {
+        return search(file, patterns, DEFAULT_REGION_SIZE, sink);
+    }
+
+    // Regions do not overlap; the automaton state carries over from one region to the next
+    public static long search(Path file, ByteAhoCorasick patterns, int regionSize, StreamMatchSink sink)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int state = 0;
+            for (long position = 0; position < size; position += regionSize) {
+                int length = (int) Math.min(regionSize, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                state = patterns.scan(region, 0, length, state, position, sink);
+            }
+            return size;
+        }
+    }
+
+    // Regions do not overlap; the KMP state carries over from one region to the next
+    public static long search(Path file, ByteKmp pattern, int regionSize, StreamMatchSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int state = 0;
+            for (long position = 0; position < size; position += regionSize) {
+                int length = (int) Math.min(regionSize, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                state = pattern.scan(region, 0, length, state, position, sink);
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.Arrays;
+
+// Growable primitive buffer of (start, patternId) matches.
+public class MatchBuffer implements MatchSink {
+    private int[] starts;
+    private int[] patternIds;
+    private int size = 0;
+
+    public MatchBuffer() {
+        this(64);
+    }
+
+    public MatchBuffer(int initialCapacity) {
+        starts = new int[Math.max(1, initialCapacity)];
+        patternIds = new int[starts.length];
+    }
+
+    @Override
+    public void onMatch(int start, int patternId) {
+        if (size == starts.length) {
+            int capacity = size + (size >> 1) + 1;
+            starts = Arrays.copyOf(starts, capacity);
+            patternIds = Arrays.copyOf(patternIds, capacity);
+        }
+        starts[size] = start;
+        patternIds[size] = patternId;
+        size++;
+    }
+
+    public void addAll(MatchBuffer other) {
+        if (size + other.size > starts.length) {
+            int capacity = Math.max(size + other.size, size + (size >> 1) + 1);
+            starts = Arrays.copyOf(starts, capacity);
+            patternIds = Arrays.copyOf(patternIds, capacity);
+        }
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.patternIds, 0, patternIds, size, other.size);
+        size += other.size;
+    }
+
+    // Replaces rows [from, to) with the replacement's rows and adds shift to the start of every
+    // row after them, as an edit does to the matches of a text
+    public void splice(int from, int to, MatchBuffer replacement, int shift) {
+        int tail = size - to;
+        int newSize = from + replacement.size + tail;
+        if (newSize > starts.length) {
+            int capacity = Math.max(newSize, size + (size >> 1) + 1);
+            starts = Arrays.copyOf(starts, capacity);
+            patternIds = Arrays.copyOf(patternIds, capacity);
+        }
+        System.arraycopy(starts, to, starts, from + replacement.size, tail);
+        System.arraycopy(patternIds, to, patternIds, from + replacement.size, tail);
+        System.arraycopy(replacement.starts, 0, starts, from, replacement.size);
+        System.arraycopy(replacement.patternIds, 0, patternIds, from, replacement.size);
+        for (int i = from + replacement.size; i < newSize; i++) {
+            starts[i] += shift;
+        }
+        size = newSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int patternId(int index) {
+        return patternIds[index];
+    }
+
+    public int[] starts() {
+        return Arrays.copyOf(starts, size);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Orders the matches by start, then pattern id (scanners report them in end order)
+    public void sortByStart() {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) starts[i] << 32) | (patternIds[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            starts[i] = (int) (keys[i] >> 32);
+            patternIds[i] = (int) keys[i];
+        }
+    }
+
+    // One "Pattern found at index: N" line per match, as the single-pattern searches print them
+    public String formatIndices() {
+        StringBuilder sb = new StringBuilder(size * 28);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append("Pattern found at index: ").append(starts[i]);
+        }
+        return sb.toString();
+    }
+
+    // One "Pattern found at index N: pattern" line per match, as the Aho-Corasick search prints them
+    public String formatMatches(TextMatcher matcher) {
+        StringBuilder sb = new StringBuilder(size * 32);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append("Pattern found at index ").append(starts[i]).append(": ").append(matcher.pattern(patternIds[i]));
+        }
+        return sb.toString();
+    }
+}
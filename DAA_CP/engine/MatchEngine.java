@@ -0,0 +1,41 @@
+// The matching engines offered by the GUIs, keyed by their dropdown names.
+public enum MatchEngine {
+    AHO_CORASICK("Aho-Corasick", true),
+    AHO_CORASICK_DFA("Aho-Corasick DFA", true),
+    RABIN_KARP("Rabin-Karp", true),
+    BOYER_MOORE("Boyer-Moore", false),
+    HORSPOOL("Horspool", false),
+    SUNDAY("Sunday", false),
+    KMP("KMP", false),
+    Z_ALGORITHM("Z-Algorithm", false);
+
+    private final String displayName;
+    private final boolean multiPattern;
+
+    MatchEngine(String displayName, boolean multiPattern) {
+        this.displayName = displayName;
+        this.multiPattern = multiPattern;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    public boolean isMultiPattern() {
+        return multiPattern;
+    }
+
+    public static MatchEngine fromDisplayName(String name) {
+        for (MatchEngine engine : values()) {
+            if (engine.displayName.equalsIgnoreCase(name) || engine.name().equalsIgnoreCase(name)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Unknown algorithm: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
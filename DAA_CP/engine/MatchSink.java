@@ -0,0 +1,6 @@
+// Receives matches as the engines find them, without boxing or formatting.
+// patternId is the index of the matched pattern; single-pattern engines always report 0.
+@FunctionalInterface
+public interface MatchSink {
+    void onMatch(int start, int patternId);
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+// DNA sequence packed 2 bits per base, 32 bases per long (A=00, C=01, G=10, T=11).
+// Any other symbol (lower-case bases, N, IUPAC ambiguity codes, stray characters) is flagged
+// in a one-bit-per-base mask and kept verbatim in a sorted side table, so comparisons stay
+// exact char for char like the original dnaMatch: 'a' against 'A' is a mismatch.
+public final class PackedDna {
+    private static final long EVEN_BITS = 0x5555555555555555L;
+
+    private final int length;
+    private final long[] bases;
+    private final long[] ambiguous;        // null when every base is A, C, G or T
+    private final int[] ambiguousPositions;
+    private final char[] ambiguousSymbols;
+
+    private PackedDna(int length, long[] bases, long[] ambiguous, int[] ambiguousPositions, char[] ambiguousSymbols) {
+        this.length = length;
+        this.bases = bases;
+        this.ambiguous = ambiguous;
+        this.ambiguousPositions = ambiguousPositions;
+        this.ambiguousSymbols = ambiguousSymbols;
+    }
+
+    public static PackedDna pack(CharSequence sequence) {
+        int length = sequence.length();
+        long[] bases = new long[(length + 31) >>> 5];
+        long[] ambiguous = null;
+        int[] positions = new int[0];
+        char[] symbols = new char[0];
+        int ambiguousCount = 0;
+        for (int i = 0; i < length; i++) {
+            char c = sequence.charAt(i);
+            int code = code(c);
+            if (code >= 0) {
+                bases[i >>> 5] |= (long) code << ((i & 31) << 1);
+            } else {
+                if (ambiguous == null) {
+                    ambiguous = new long[(length + 63) >>> 6];
+                }
+                ambiguous[i >>> 6] |= 1L << (i & 63);
+                if (ambiguousCount == positions.length) {
+                    positions = Arrays.copyOf(positions, Math.max(8, ambiguousCount * 2));
+                    symbols = Arrays.copyOf(symbols, positions.length);
+                }
+                positions[ambiguousCount] = i;
+                symbols[ambiguousCount++] = c;
+            }
+        }
+        return new PackedDna(length, bases, ambiguous,
+                Arrays.copyOf(positions, ambiguousCount), Arrays.copyOf(symbols, ambiguousCount));
+    }
+
+    private static int code(char c) {
+        switch (c) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char baseAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        if (ambiguous != null && (ambiguous[index >>> 6] & (1L << (index & 63))) != 0) {
+            return ambiguousSymbols[Arrays.binarySearch(ambiguousPositions, index)];
+        }
+        return "ACGT".charAt((int) (bases[index >>> 5] >>> ((index & 31) << 1)) & 3);
+    }
+
+    // Number of positions holding the same base in both sequences, 32 bases per step
+    public int countMatches(PackedDna other) {
+        if (other.length != length) {
+            throw new IllegalArgumentException("Both DNA sequences must be of the same length.");
+        }
+        if (ambiguous == null && other.ambiguous == null) {
+            return (int) (length - SimdSupport.KERNELS.countDifferentBases(bases, other.bases));
+        }
+        long mismatches = 0;
+        for (int w = 0; w < bases.length; w++) {
+            long x = bases[w] ^ other.bases[w];
+            long diff = (x | (x >>> 1)) & EVEN_BITS;
+            long mine = ambiguousBits(ambiguous, w);
+            long theirs = ambiguousBits(other.ambiguous, w);
+            // A base against an ambiguous symbol never matches; two ambiguous symbols are compared below
+            diff = (diff & ~(mine | theirs)) | (mine ^ theirs);
+            mismatches += Long.bitCount(diff);
+        }
+        mismatches += ambiguousMismatches(other);
+        return (int) (length - mismatches);
+    }
+
+    public double matchPercentage(PackedDna other) {
+        return ((double) countMatches(other) / length) * 100;
+    }
+
+    // Positions ambiguous in both sequences that hold different symbols
+    private int ambiguousMismatches(PackedDna other) {
+        int count = 0;
+        int i = 0, j = 0;
+        while (i < ambiguousPositions.length && j < other.ambiguousPositions.length) {
+            int a = ambiguousPositions[i], b = other.ambiguousPositions[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                if (ambiguousSymbols[i] != other.ambiguousSymbols[j]) {
+                    count++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    // The ambiguity flags of the 32 bases in packed word w, moved onto the low bit of each 2-bit slot
+    private static long ambiguousBits(long[] mask, int w) {
+        if (mask == null) {
+            return 0;
+        }
+        long x = (mask[w >>> 1] >>> ((w & 1) << 5)) & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & EVEN_BITS;
+        return x;
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Splits a large text into segments and searches them in parallel on a ForkJoinPool.
+// Each segment is searched together with the next (longest pattern - 1) chars but only
+// keeps matches that start inside it, so boundary matches are found exactly once.
+// Results are merged in segment order, which for single-pattern engines is the same
+// order a sequential scan reports.
+public class ParallelSearch {
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final int segmentSize;
+
+    public ParallelSearch() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEGMENT_SIZE);
+    }
+
+    public ParallelSearch(ForkJoinPool pool, int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segmentSize must be positive: " + segmentSize);
+        }
+        this.pool = pool;
+        this.segmentSize = segmentSize;
+    }
+
+    public MatchBuffer search(TextMatcher matcher, String text) {
+        if (text.length() <= segmentSize) {
+            MatchBuffer matches = new MatchBuffer();
+            matcher.search(text, matches);
+            return matches;
+        }
+        int segments = (text.length() + segmentSize - 1) / segmentSize;
+        return pool.invoke(new SegmentTask(matcher, text, 0, segments));
+    }
+
+    public void search(TextMatcher matcher, String text, MatchSink sink) {
+        MatchBuffer matches = search(matcher, text);
+        for (int i = 0; i < matches.size(); i++) {
+            sink.onMatch(matches.start(i), matches.patternId(i));
+        }
+    }
+
+    private final class SegmentTask extends RecursiveTask<MatchBuffer> {
+        private static final long serialVersionUID = 1L;
+
+        private final TextMatcher matcher;
+        private final String text;
+        private final int firstSegment;
+        private final int endSegment;
+
+        SegmentTask(TextMatcher matcher, String text, int firstSegment, int endSegment) {
+            this.matcher = matcher;
+            this.text = text;
+            this.firstSegment = firstSegment;
+            this.endSegment = endSegment;
+        }
+
+        @Override
+        protected MatchBuffer compute() {
+            if (endSegment - firstSegment == 1) {
+                return searchSegment();
+            }
+            int mid = (firstSegment + endSegment) >>> 1;
+            SegmentTask right = new SegmentTask(matcher, text, mid, endSegment);
+            right.fork();
+            MatchBuffer left = new SegmentTask(matcher, text, firstSegment, mid).compute();
+            left.addAll(right.join());
+            return left;
+        }
+
+        private MatchBuffer searchSegment() {
+            int from = firstSegment * segmentSize;
+            int end = (int) Math.min((long) from + segmentSize, text.length());
+            int to = (int) Math.min((long) end + Math.max(0, matcher.maxPatternLength() - 1), text.length());
+            MatchBuffer matches = new MatchBuffer();
+            matcher.search(text, from, to, (start, patternId) -> {
+                if (start < end) {
+                    matches.onMatch(start, patternId);
+                }
+            });
+            return matches;
+        }
+    }
+}
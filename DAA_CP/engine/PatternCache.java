@@ -0,0 +1,138 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bounded LRU cache of compiled patterns and pattern sets, keyed by engine and
+// pattern(s), so repeated searches skip the preprocessing step.
+public class PatternCache {
+    private static final PatternCache SHARED = new PatternCache(64);
+
+    private final int maxEntries;
+    private final Map<List<Object>, Object> entries;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public PatternCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<List<Object>, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest) {
+                if (size() > PatternCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static PatternCache shared() {
+        return SHARED;
+    }
+
+    public CompiledPattern compile(MatchEngine engine, String pattern) {
+        List<Object> key = Arrays.asList(engine, pattern);
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (CompiledPattern) cached;
+        }
+        return (CompiledPattern) store(key, create(engine, pattern));
+    }
+
+    // Uncached construction of a single-pattern engine
+    static CompiledPattern create(MatchEngine engine, String pattern) {
+        switch (engine) {
+            case BOYER_MOORE:
+                return new BoyerMoorePattern(pattern);
+            case HORSPOOL:
+                return new HorspoolPattern(pattern);
+            case SUNDAY:
+                return new SundayPattern(pattern);
+            case KMP:
+                return new KmpPattern(pattern);
+            case Z_ALGORITHM:
+                return new ZPattern(pattern);
+            default:
+                throw new IllegalArgumentException(engine + " is a multi-pattern engine");
+        }
+    }
+
+    public CompiledPatternSet compileSet(MatchEngine engine, List<String> patterns) {
+        List<Object> key = Arrays.asList(engine, List.copyOf(patterns));
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (CompiledPatternSet) cached;
+        }
+        return (CompiledPatternSet) store(key, createSet(engine, patterns));
+    }
+
+    // Uncached construction of a multi-pattern engine
+    static CompiledPatternSet createSet(MatchEngine engine, List<String> patterns) {
+        switch (engine) {
+            case AHO_CORASICK:
+                return CompactAhoCorasick.compile(patterns);
+            case AHO_CORASICK_DFA:
+                return CompactAhoCorasick.compileDfa(patterns);
+            case RABIN_KARP:
+                return RabinKarpSet.compile(patterns);
+            default:
+                throw new IllegalArgumentException(engine + " is a single-pattern engine");
+        }
+    }
+
+    public ApproximateMatcher compileApproximate(String pattern, int maxErrors, ApproximateMatcher.Mode mode) {
+        List<Object> key = Arrays.asList(mode, maxErrors, pattern);
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (ApproximateMatcher) cached;
+        }
+        return (ApproximateMatcher) store(key, new ApproximateMatcher(pattern, maxErrors, mode));
+    }
+
+    // Compilation runs outside the lock so a large automaton does not block other lookups
+    private synchronized Object lookup(List<Object> key) {
+        Object cached = entries.get(key);
+        if (cached != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cached;
+    }
+
+    private synchronized Object store(List<Object> key, Object compiled) {
+        Object existing = entries.putIfAbsent(key, compiled);
+        return existing != null ? existing : compiled;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("PatternCache[size=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                entries.size(), maxEntries, hits, misses, evictions);
+    }
+}
@@ -0,0 +1,281 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Rabin-Karp for large sets of fixed-length patterns such as DNA k-mers. Patterns are
+// grouped by length and every group keeps one rolling hash over the text, so the cost
+// per text position is one hash update and one table probe per distinct length, and
+// memory is a primitive long-keyed table per group rather than a trie over all chars.
+//
+// When every pattern is made of A, C, G and T and is at most 32 long, the rolling value
+// is the exact 2-bit packed k-mer, so a table hit is a match with no verification; any
+// other char restarts the window. Otherwise a 64-bit polynomial hash is used, and each
+// hit is verified against the patterns chained under that hash.
+//
+// Matches are reported in end order, longest pattern first, like Aho-Corasick. Empty
+// patterns are ignored and a duplicate pattern reports only its first id.
+public class RabinKarpSet implements CompiledPatternSet, CharArrayMatcher {
+    private static final long BASE = 0x100000001B3L;   // odd, so powers never vanish mod 2^64
+    private static final int MAX_DNA_LENGTH = 32;
+
+    private final String[] patterns;
+    private final boolean dna;
+    private final int maxPatternLength;
+    private final int[] lengths;              // one group per distinct length, longest first
+    private final LongIntHashMap[] tables;    // key -> first pattern id with that key
+    private final long[] topPowers;           // BASE^(length - 1) per group, for the general hash
+    private final int[] nextSameKey;          // next pattern id chained under the same key, or -1
+
+    private RabinKarpSet(String[] patterns, boolean dna, int[] lengths, LongIntHashMap[] tables, long[] topPowers,
+                         int[] nextSameKey) {
+        this.patterns = patterns;
+        this.dna = dna;
+        this.lengths = lengths;
+        this.tables = tables;
+        this.topPowers = topPowers;
+        this.nextSameKey = nextSameKey;
+        this.maxPatternLength = lengths.length > 0 ? lengths[0] : 0;
+    }
+
+    public static RabinKarpSet compile(Collection<String> patternList) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        String[] patterns = patternList.toArray(new String[0]);
+        boolean dna = true;
+        long totalLength = 0;
+        TreeMap<Integer, List<Integer>> byLength = new TreeMap<>((a, b) -> Integer.compare(b, a));
+        for (int id = 0; id < patterns.length; id++) {
+            String pattern = patterns[id];
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            byLength.computeIfAbsent(pattern.length(), length -> new ArrayList<>()).add(id);
+            totalLength += pattern.length();
+            dna &= pattern.length() <= MAX_DNA_LENGTH;
+            for (int i = 0; dna && i < pattern.length(); i++) {
+                dna = dnaCode(pattern.charAt(i)) >= 0;
+            }
+        }
+
+        int groups = byLength.size();
+        int[] lengths = new int[groups];
+        LongIntHashMap[] tables = new LongIntHashMap[groups];
+        long[] topPowers = new long[groups];
+        int[] nextSameKey = new int[patterns.length];
+        Arrays.fill(nextSameKey, -1);
+        int g = 0;
+        for (Map.Entry<Integer, List<Integer>> group : byLength.entrySet()) {
+            int length = group.getKey();
+            lengths[g] = length;
+            topPowers[g] = power(length - 1);
+            LongIntHashMap table = new LongIntHashMap(group.getValue().size());
+            for (int id : group.getValue()) {
+                long key = dna ? packDna(patterns[id]) : hash(patterns[id]);
+                int first = table.get(key);
+                if (first < 0) {
+                    table.put(key, id);
+                    continue;
+                }
+                // Append to the chain unless it already holds the same pattern (or, for
+                // exact DNA keys, any pattern: equal keys mean equal k-mers)
+                int last = first;
+                boolean duplicate = dna || patterns[first].equals(patterns[id]);
+                while (!duplicate && nextSameKey[last] >= 0) {
+                    last = nextSameKey[last];
+                    duplicate = patterns[last].equals(patterns[id]);
+                }
+                if (!duplicate) {
+                    nextSameKey[last] = id;
+                }
+            }
+            tables[g++] = table;
+        }
+        RabinKarpSet set = new RabinKarpSet(patterns, dna, lengths, tables, topPowers, nextSameKey);
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordBuild(MatchEngine.RABIN_KARP, totalLength, 0, System.nanoTime() - startNanos);
+        }
+        return set;
+    }
+
+    private static int dnaCode(char c) {
+        switch (c) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+
+    private static long packDna(String pattern) {
+        long key = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            key = (key << 2) | dnaCode(pattern.charAt(i));
+        }
+        return key;
+    }
+
+    private static long hash(String pattern) {
+        long h = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            h = h * BASE + pattern.charAt(i);
+        }
+        return h;
+    }
+
+    private static long power(int exponent) {
+        long p = 1;
+        for (int i = 0; i < exponent; i++) {
+            p *= BASE;
+        }
+        return p;
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return MatchEngine.RABIN_KARP;
+    }
+
+    public boolean isDnaMode() {
+        return dna;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long probes = 0, matches = 0;
+        int groups = lengths.length;
+        long[] keys = new long[groups];
+        if (dna) {
+            long[] masks = new long[groups];
+            for (int g = 0; g < groups; g++) {
+                masks[g] = lengths[g] == MAX_DNA_LENGTH ? -1L : (1L << (2 * lengths[g])) - 1;
+            }
+            int valid = 0;   // chars since the last non-ACGT char
+            for (int i = from; i < to; i++) {
+                int code = dnaCode(text.charAt(i));
+                if (code < 0) {
+                    valid = 0;
+                    continue;
+                }
+                valid++;
+                for (int g = 0; g < groups; g++) {
+                    keys[g] = ((keys[g] << 2) | code) & masks[g];
+                    if (valid >= lengths[g]) {
+                        probes++;
+                        int id = tables[g].get(keys[g]);
+                        if (id >= 0) {
+                            sink.onMatch(i - lengths[g] + 1, id);
+                            matches++;
+                        }
+                    }
+                }
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                int seen = i - from + 1;
+                for (int g = 0; g < groups; g++) {
+                    int length = lengths[g];
+                    if (seen > length) {
+                        keys[g] -= topPowers[g] * text.charAt(i - length);
+                    }
+                    keys[g] = keys[g] * BASE + c;
+                    if (seen >= length) {
+                        probes++;
+                        int start = i - length + 1;
+                        for (int id = tables[g].get(keys[g]); id >= 0; id = nextSameKey[id]) {
+                            if (text.regionMatches(start, patterns[id], 0, length)) {
+                                sink.onMatch(start, id);
+                                matches++;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.RABIN_KARP, to - from, probes, 0, 0, 0, matches,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void search(char[] text, int from, int to, MatchSink sink) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long probes = 0, matches = 0;
+        int groups = lengths.length;
+        long[] keys = new long[groups];
+        if (dna) {
+            long[] masks = new long[groups];
+            for (int g = 0; g < groups; g++) {
+                masks[g] = lengths[g] == MAX_DNA_LENGTH ? -1L : (1L << (2 * lengths[g])) - 1;
+            }
+            int valid = 0;   // chars since the last non-ACGT char
+            for (int i = from; i < to; i++) {
+                int code = dnaCode(text[i]);
+                if (code < 0) {
+                    valid = 0;
+                    continue;
+                }
+                valid++;
+                for (int g = 0; g < groups; g++) {
+                    keys[g] = ((keys[g] << 2) | code) & masks[g];
+                    if (valid >= lengths[g]) {
+                        probes++;
+                        int id = tables[g].get(keys[g]);
+                        if (id >= 0) {
+                            sink.onMatch(i - lengths[g] + 1, id);
+                            matches++;
+                        }
+                    }
+                }
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                char c = text[i];
+                int seen = i - from + 1;
+                for (int g = 0; g < groups; g++) {
+                    int length = lengths[g];
+                    if (seen > length) {
+                        keys[g] -= topPowers[g] * text[i - length];
+                    }
+                    keys[g] = keys[g] * BASE + c;
+                    if (seen >= length) {
+                        probes++;
+                        int start = i - length + 1;
+                        for (int id = tables[g].get(keys[g]); id >= 0; id = nextSameKey[id]) {
+                            if (CharArrayMatcher.regionMatches(text, start, patterns[id], 0, length)) {
+                                sink.onMatch(start, id);
+                                matches++;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.RABIN_KARP, to - from, probes, 0, 0, 0, matches,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public int patternCount() {
+        return patterns.length;
+    }
+
+    @Override
+    public String pattern(int id) {
+        return patterns[id];
+    }
+
+    @Override
+    public int maxPatternLength() {
+        return maxPatternLength;
+    }
+}
@@ -0,0 +1,44 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event committed at the end of every instrumented search
+@Name("daa.matching.Search")
+@Label("String Search")
+@Category({ "DAA", "Matching" })
+@Description("One scan of a text by a matching engine, with its work counters")
+class SearchEvent extends jdk.jfr.Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Text Chars")
+    long textChars;
+
+    @Label("Comparisons")
+    @Description("Text chars compared against the pattern or looked up in the automaton")
+    long comparisons;
+
+    @Label("Shifts")
+    long shifts;
+
+    @Label("Skip Distance")
+    @Description("Sum of all window shifts")
+    long skipDistance;
+
+    @Label("Failure Links")
+    @Description("Failure or LPS fallbacks followed")
+    long failureLinks;
+
+    @Label("Matches")
+    long matches;
+
+    @Label("Scan Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long scanNanos;
+
+    @Label("Throughput")
+    @Description("Text chars scanned per second")
+    double charsPerSecond;
+}
@@ -0,0 +1,227 @@
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Engine instrumentation: per-engine counters for text chars scanned, char comparisons
+// (each one a text char inspected), shifts and skip distance, failure-link traversals,
+// matches, preprocessing and scan time. Each search
+// keeps its counters in locals and hands them over once at the end, as a JFR SearchEvent
+// and into the totals behind the "daa.matching:type=SearchMetrics" MBean.
+//
+// Off unless started with -Dmatching.metrics=true. ENABLED is a static final constant, so
+// when it is false the JIT drops the guarded recording code and the dead local counters.
+public final class SearchMetrics implements SearchMetricsMXBean {
+    public static final boolean ENABLED = Boolean.getBoolean("matching.metrics");
+
+    private static final SearchMetrics INSTANCE = new SearchMetrics();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE,
+                        new ObjectName("daa.matching:type=SearchMetrics"));
+            } catch (JMException e) {
+                System.err.println("SearchMetrics: MBean not registered: " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class EngineStats {
+        final LongAdder searches = new LongAdder();
+        final LongAdder textChars = new LongAdder();
+        final LongAdder comparisons = new LongAdder();
+        final LongAdder shifts = new LongAdder();
+        final LongAdder skipDistance = new LongAdder();
+        final LongAdder failureLinks = new LongAdder();
+        final LongAdder matches = new LongAdder();
+        final LongAdder scanNanos = new LongAdder();
+        final LongAdder builds = new LongAdder();
+        final LongAdder buildNanos = new LongAdder();
+        volatile long slowestScanNanos;
+    }
+
+    private final Map<MatchEngine, EngineStats> stats = new EnumMap<>(MatchEngine.class);
+
+    private SearchMetrics() {
+        for (MatchEngine engine : MatchEngine.values()) {
+            stats.put(engine, new EngineStats());
+        }
+    }
+
+    public static SearchMetrics get() {
+        return INSTANCE;
+    }
+
+    // Called once per search with that search's counters; only reached when ENABLED
+    static void recordSearch(MatchEngine engine, long textChars, long comparisons, long shifts,
+                             long skipDistance, long failureLinks, long matches, long nanos) {
+        EngineStats s = INSTANCE.stats.get(engine);
+        s.searches.increment();
+        s.textChars.add(textChars);
+        s.comparisons.add(comparisons);
+        s.shifts.add(shifts);
+        s.skipDistance.add(skipDistance);
+        s.failureLinks.add(failureLinks);
+        s.matches.add(matches);
+        s.scanNanos.add(nanos);
+        if (nanos > s.slowestScanNanos) {
+            s.slowestScanNanos = nanos;
+        }
+        SearchEvent event = new SearchEvent();
+        if (event.isEnabled()) {
+            event.engine = engine.displayName();
+            event.textChars = textChars;
+            event.comparisons = comparisons;
+            event.shifts = shifts;
+            event.skipDistance = skipDistance;
+            event.failureLinks = failureLinks;
+            event.matches = matches;
+            event.scanNanos = nanos;
+            event.charsPerSecond = nanos > 0 ? textChars * 1e9 / nanos : 0.0;
+            event.commit();
+        }
+    }
+
+    // Called once per compiled pattern or pattern set; only reached when ENABLED
+    static void recordBuild(MatchEngine engine, long patternChars, long failureLinks, long nanos) {
+        EngineStats s = INSTANCE.stats.get(engine);
+        s.builds.increment();
+        s.buildNanos.add(nanos);
+        s.failureLinks.add(failureLinks);
+        BuildEvent event = new BuildEvent();
+        if (event.isEnabled()) {
+            event.engine = engine.displayName();
+            event.patternChars = patternChars;
+            event.failureLinks = failureLinks;
+            event.buildNanos = nanos;
+            event.commit();
+        }
+    }
+
+    // Chars a left-to-right regionMatches(offset, pattern, 0, length) compares before it stops
+    static int comparedChars(String text, int offset, String pattern, int length) {
+        int i = 0;
+        while (i < length && text.charAt(offset + i) == pattern.charAt(i)) {
+            i++;
+        }
+        return Math.min(i + 1, length);
+    }
+
+    static int comparedChars(char[] text, int offset, String pattern, int length) {
+        int i = 0;
+        while (i < length && text[offset + i] == pattern.charAt(i)) {
+            i++;
+        }
+        return Math.min(i + 1, length);
+    }
+
+    private long sum(Function<EngineStats, LongAdder> counter) {
+        long total = 0;
+        for (EngineStats s : stats.values()) {
+            total += counter.apply(s).sum();
+        }
+        return total;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getSearches() {
+        return sum(s -> s.searches);
+    }
+
+    @Override
+    public long getTextChars() {
+        return sum(s -> s.textChars);
+    }
+
+    @Override
+    public long getComparisons() {
+        return sum(s -> s.comparisons);
+    }
+
+    @Override
+    public long getShifts() {
+        return sum(s -> s.shifts);
+    }
+
+    @Override
+    public long getSkipDistance() {
+        return sum(s -> s.skipDistance);
+    }
+
+    @Override
+    public long getFailureLinkTraversals() {
+        return sum(s -> s.failureLinks);
+    }
+
+    @Override
+    public long getMatches() {
+        return sum(s -> s.matches);
+    }
+
+    @Override
+    public long getScanNanos() {
+        return sum(s -> s.scanNanos);
+    }
+
+    @Override
+    public long getBuildNanos() {
+        return sum(s -> s.buildNanos);
+    }
+
+    @Override
+    public double getCharsPerSecond() {
+        long nanos = getScanNanos();
+        return nanos > 0 ? getTextChars() * 1e9 / nanos : 0.0;
+    }
+
+    @Override
+    public String engineReport(String engineName) {
+        MatchEngine engine = MatchEngine.fromDisplayName(engineName);
+        EngineStats s = stats.get(engine);
+        long shifts = s.shifts.sum();
+        long nanos = s.scanNanos.sum();
+        return String.format("%s: searches=%d chars=%d comparisons=%d shifts=%d avgShift=%.2f failureLinks=%d "
+                        + "matches=%d scan=%.3fms slowest=%.3fms builds=%d build=%.3fms throughput=%.1f MB/s",
+                engine.displayName(), s.searches.sum(), s.textChars.sum(), s.comparisons.sum(), shifts,
+                shifts > 0 ? (double) s.skipDistance.sum() / shifts : 0.0, s.failureLinks.sum(), s.matches.sum(),
+                nanos / 1e6, s.slowestScanNanos / 1e6, s.builds.sum(), s.buildNanos.sum() / 1e6,
+                nanos > 0 ? s.textChars.sum() * 1e3 / nanos : 0.0);
+    }
+
+    @Override
+    public void reset() {
+        for (EngineStats s : stats.values()) {
+            s.searches.reset();
+            s.textChars.reset();
+            s.comparisons.reset();
+            s.shifts.reset();
+            s.skipDistance.reset();
+            s.failureLinks.reset();
+            s.matches.reset();
+            s.scanNanos.reset();
+            s.builds.reset();
+            s.buildNanos.reset();
+            s.slowestScanNanos = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<MatchEngine, EngineStats> entry : stats.entrySet()) {
+            if (entry.getValue().searches.sum() > 0 || entry.getValue().builds.sum() > 0) {
+                sb.append(engineReport(entry.getKey().name())).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,28 @@
+// JMX view of SearchMetrics: totals over all engines plus a per-engine report
+public interface SearchMetricsMXBean {
+    boolean isEnabled();
+
+    long getSearches();
+
+    long getTextChars();
+
+    long getComparisons();
+
+    long getShifts();
+
+    long getSkipDistance();
+
+    long getFailureLinkTraversals();
+
+    long getMatches();
+
+    long getScanNanos();
+
+    long getBuildNanos();
+
+    double getCharsPerSecond();
+
+    String engineReport(String engineName);
+
+    void reset();
+}
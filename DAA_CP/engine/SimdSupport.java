@@ -0,0 +1,57 @@
+import java.nio.ByteBuffer;
+
+// Selects the hot-loop kernels at startup: the Vector API versions in VectorKernels when the
+// jdk.incubator.vector module is present (run with --add-modules jdk.incubator.vector) and
+// simd/VectorKernels.java was compiled separately, otherwise the scalar loops below. -Dmatching.simd=false forces the scalar path.
+final class SimdSupport {
+    interface Kernels {
+        // Number of differing bases between two 2-bit packed sequences of equal word count
+        long countDifferentBases(long[] a, long[] b);
+
+        // Smallest i in [from, to - m] with buffer[i] == first and buffer[i + m - 1] == last, or -1
+        int indexOfCandidate(ByteBuffer buffer, int from, int to, byte first, byte last, int m);
+    }
+
+    static final Kernels KERNELS = load();
+
+    private SimdSupport() {
+    }
+
+    static boolean isVectorized() {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    private static Kernels load() {
+        if (!Boolean.parseBoolean(System.getProperty("matching.simd", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarKernels();
+        }
+        try {
+            return (Kernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernels();
+        }
+    }
+
+    static final class ScalarKernels implements Kernels {
+        @Override
+        public long countDifferentBases(long[] a, long[] b) {
+            long count = 0;
+            for (int i = 0; i < a.length; i++) {
+                long x = a[i] ^ b[i];
+                count += Long.bitCount((x | (x >>> 1)) & 0x5555555555555555L);
+            }
+            return count;
+        }
+
+        @Override
+        public int indexOfCandidate(ByteBuffer buffer, int from, int to, byte first, byte last, int m) {
+            for (int i = from; i <= to - m; i++) {
+                if (buffer.get(i) == first && buffer.get(i + m - 1) == last) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+// Receives matches from streaming searches, where offsets can exceed the int range.
+@FunctionalInterface
+public interface StreamMatchSink {
+    void onMatch(long start, int patternId);
+}
@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+// Searches text that arrives in fixed-size chunks and reports absolute char offsets.
+// KMP and Aho-Corasick carry their automaton state from one chunk to the next; the
+// other engines keep the last (longest pattern - 1) chars so matches that straddle a
+// chunk boundary are still found. Memory stays bounded by buffer size plus pattern size.
+public abstract class StreamingSearch {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    protected final StreamMatchSink sink;
+    protected long position = 0;
+
+    protected StreamingSearch(StreamMatchSink sink) {
+        this.sink = sink;
+    }
+
+    public static StreamingSearch of(TextMatcher matcher, StreamMatchSink sink) {
+        return of(matcher, sink, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static StreamingSearch of(TextMatcher matcher, StreamMatchSink sink, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        if (matcher instanceof KmpPattern) {
+            return new KmpStream((KmpPattern) matcher, sink);
+        }
+        if (matcher instanceof CompactAhoCorasick) {
+            return new AhoCorasickStream((CompactAhoCorasick) matcher, sink);
+        }
+        if (matcher instanceof MappedAhoCorasick) {
+            return new MappedAhoCorasickStream((MappedAhoCorasick) matcher, sink);
+        }
+        return new OverlapStream(matcher, sink, bufferSize);
+    }
+
+    // Consumes chunk[0, length); the chunk may be reused by the caller afterwards
+    public abstract void feed(char[] chunk, int length);
+
+    // Number of chars consumed so far
+    public long position() {
+        return position;
+    }
+
+    public static long search(Reader reader, TextMatcher matcher, int bufferSize, StreamMatchSink sink) throws IOException {
+        StreamingSearch search = of(matcher, sink, bufferSize);
+        char[] buffer = new char[bufferSize];
+        int read;
+        while ((read = reader.read(buffer, 0, bufferSize)) >= 0) {
+            if (read > 0) {
+                search.feed(buffer, read);
+            }
+        }
+        return search.position();
+    }
+
+    public static long search(ReadableByteChannel channel, Charset charset, TextMatcher matcher, int bufferSize,
+                              StreamMatchSink sink) throws IOException {
+        // Bad bytes become U+FFFD, as in new String(bytes, charset), instead of failing the whole search
+        return search(Channels.newReader(channel, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE), bufferSize), matcher, bufferSize, sink);
+    }
+
+    private static final class KmpStream extends StreamingSearch {
+        private final KmpPattern pattern;
+        private int state = 0;
+
+        KmpStream(KmpPattern pattern, StreamMatchSink sink) {
+            super(sink);
+            this.pattern = pattern;
+        }
+
+        @Override
+        public void feed(char[] chunk, int length) {
+            state = pattern.scan(chunk, length, state, position, sink);
+            position += length;
+        }
+    }
+
+    private static final class AhoCorasickStream extends StreamingSearch {
+        private final CompactAhoCorasick automaton;
+        private int state = 0;
+
+        AhoCorasickStream(CompactAhoCorasick automaton, StreamMatchSink sink) {
+            super(sink);
+            this.automaton = automaton;
+        }
+
+        @Override
+        public void feed(char[] chunk, int length) {
+            state = automaton.scan(chunk, length, state, position, sink);
+            position += length;
+        }
+    }
+
+    private static final class MappedAhoCorasickStream extends StreamingSearch {
+        private final MappedAhoCorasick automaton;
+        private int state = 0;
+
+        MappedAhoCorasickStream(MappedAhoCorasick automaton, StreamMatchSink sink) {
+            super(sink);
+            this.automaton = automaton;
+        }
+
+        @Override
+        public void feed(char[] chunk, int length) {
+            state = automaton.scan(chunk, length, state, position, sink);
+            position += length;
+        }
+    }
+
+    // Searches each chunk together with the tail of the previous one. Only matches that
+    // reach past the carried tail are new, which keeps boundary matches from repeating.
+    // Engines implementing CharArrayMatcher search the window in place and the stream is
+    // its own filtering sink, so a chunk allocates nothing; other matchers get a String copy.
+    private static final class OverlapStream extends StreamingSearch implements MatchSink {
+        private final TextMatcher matcher;
+        private final CharArrayMatcher arrayMatcher;
+        private final int overlap;
+        private char[] window;
+        private int carried = 0;
+        private long windowStart;
+
+        OverlapStream(TextMatcher matcher, StreamMatchSink sink, int bufferSize) {
+            super(sink);
+            this.matcher = matcher;
+            this.arrayMatcher = matcher instanceof CharArrayMatcher ? (CharArrayMatcher) matcher : null;
+            this.overlap = Math.max(0, matcher.maxPatternLength() - 1);
+            this.window = new char[overlap + bufferSize];
+        }
+
+        @Override
+        public void feed(char[] chunk, int length) {
+            if (carried + length > window.length) {
+                char[] larger = new char[carried + length];
+                System.arraycopy(window, 0, larger, 0, carried);
+                window = larger;
+            }
+            System.arraycopy(chunk, 0, window, carried, length);
+            int filled = carried + length;
+            windowStart = position - carried;
+            if (arrayMatcher != null) {
+                arrayMatcher.search(window, 0, filled, this);
+            } else {
+                matcher.search(new String(window, 0, filled), this);
+            }
+            carried = Math.min(overlap, filled);
+            System.arraycopy(window, filled - carried, window, 0, carried);
+            position += length;
+        }
+
+        // Window-relative match; carried still holds the tail length of the current window
+        @Override
+        public void onMatch(int start, int patternId) {
+            if (start + matcher.pattern(patternId).length() > carried) {
+                sink.onMatch(windowStart + start, patternId);
+            }
+        }
+    }
+}
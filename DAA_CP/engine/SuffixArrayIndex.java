@@ -0,0 +1,400 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Suffix array index over a fixed text, for answering many queries without rescanning.
+// The suffix array is built with SA-IS in O(n) and the LCP array with Kasai in O(n). A query
+// binary-searches the suffix array for the block of suffixes that start with the pattern; the
+// LCP-LR tables (the LCP of each search midpoint with the two bounds it can be reached from)
+// let each step skip the prefix already known to match, so a query costs O(m + log n) char
+// comparisons. The tables take 12 bytes per char on top of the text and suffix array. A loaded
+// index reads every array straight from the mapped file.
+public class SuffixArrayIndex {
+    private static final int MAGIC = 0x53414958;   // "SAIX"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 12;
+
+    private final CharBuffer text;
+    private final IntBuffer suffixArray;
+    private final IntBuffer lcp;        // lcp[i] = longest common prefix of suffixes at ranks i - 1 and i
+    private final IntBuffer leftLcp;    // leftLcp[mid] = LCP of ranks L and mid for the search step (L, R) at mid
+    private final IntBuffer rightLcp;   // rightLcp[mid] = LCP of ranks mid and R for the same step
+
+    private SuffixArrayIndex(CharBuffer text, IntBuffer suffixArray, IntBuffer lcp, IntBuffer leftLcp,
+            IntBuffer rightLcp) {
+        this.text = text;
+        this.suffixArray = suffixArray;
+        this.lcp = lcp;
+        this.leftLcp = leftLcp;
+        this.rightLcp = rightLcp;
+    }
+
+    public static SuffixArrayIndex build(String text) {
+        char[] chars = text.toCharArray();
+        int n = chars.length;
+        // Rank the distinct chars so the alphabet is dense and 0 is free for the sentinel
+        int[] rank = new int[Character.MAX_VALUE + 1];
+        for (char c : chars) {
+            rank[c] = 1;
+        }
+        int alphabetSize = 1;
+        for (int c = 0; c < rank.length; c++) {
+            if (rank[c] != 0) {
+                rank[c] = alphabetSize++;
+            }
+        }
+        int[] s = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            s[i] = rank[chars[i]];
+        }
+        int[] withSentinel = suffixArray(s, alphabetSize);
+        int[] suffixArray = Arrays.copyOfRange(withSentinel, 1, n + 1);
+        int[] lcp = kasai(chars, suffixArray);
+        int[] leftLcp = new int[n];
+        int[] rightLcp = new int[n];
+        lcpLr(lcp, leftLcp, rightLcp, -1, n);
+        return new SuffixArrayIndex(CharBuffer.wrap(chars), IntBuffer.wrap(suffixArray), IntBuffer.wrap(lcp),
+                IntBuffer.wrap(leftLcp), IntBuffer.wrap(rightLcp));
+    }
+
+    public int length() {
+        return text.limit();
+    }
+
+    public int suffix(int rank) {
+        return suffixArray.get(rank);
+    }
+
+    public int lcp(int rank) {
+        return lcp.get(rank);
+    }
+
+    public int count(String pattern) {
+        if (pattern.isEmpty()) {
+            return 0;
+        }
+        return search(pattern, true) - search(pattern, false);
+    }
+
+    // All positions where the pattern occurs, in ascending order
+    public int[] locate(String pattern) {
+        if (pattern.isEmpty()) {
+            return new int[0];
+        }
+        int from = search(pattern, false);
+        int to = search(pattern, true);
+        int[] positions = new int[to - from];
+        suffixArray.get(from, positions);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    public void locate(String pattern, MatchSink sink) {
+        for (int position : locate(pattern)) {
+            sink.onMatch(position, 0);
+        }
+    }
+
+    // First rank whose suffix is not smaller than the pattern (lower bound) or, with upper set,
+    // first rank whose suffix is greater than the pattern and does not start with it.
+    // Ranks L and R are the bounds of the step (-1 and n stand for the ends), l and r the
+    // pattern's LCP with them. The larger of the two is the prefix the midpoint needs checked
+    // against: when the midpoint's LCP with that bound differs from it, the side is already
+    // decided without reading the text.
+    private int search(String pattern, boolean upper) {
+        int m = pattern.length();
+        int n = text.limit();
+        int lo = -1, hi = n;
+        int l = 0, r = 0;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            int k;
+            if (l >= r) {
+                int shared = leftLcp.get(mid);
+                if (shared > l) {
+                    lo = mid;
+                    continue;
+                }
+                if (shared < l) {
+                    hi = mid;
+                    r = shared;
+                    continue;
+                }
+                k = matchLength(suffixArray.get(mid), pattern, l);
+            } else {
+                int shared = rightLcp.get(mid);
+                if (shared > r) {
+                    hi = mid;
+                    continue;
+                }
+                if (shared < r) {
+                    lo = mid;
+                    l = shared;
+                    continue;
+                }
+                k = matchLength(suffixArray.get(mid), pattern, r);
+            }
+            int start = suffixArray.get(mid);
+            boolean below = start + k == n ? k < m || upper
+                    : k == m ? upper : text.get(start + k) < pattern.charAt(k);
+            if (below) {
+                lo = mid;
+                l = k;
+            } else {
+                hi = mid;
+                r = k;
+            }
+        }
+        return hi;
+    }
+
+    private int matchLength(int start, String pattern, int k) {
+        int m = pattern.length();
+        int n = text.limit();
+        while (k < m && start + k < n && text.get(start + k) == pattern.charAt(k)) {
+            k++;
+        }
+        return k;
+    }
+
+    // Layout: magic, version, n, then n chars of text padded to a 4-byte boundary and n ints each
+    // of suffix array, LCP, left LCP and right LCP
+    public void save(Path file) throws IOException {
+        int n = length();
+        long size = intsOffset(n) + 16L * n;
+        // load() maps the file in one piece, so refuse before creating a file it cannot read
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Index of " + n + " chars is too large for a single index file");
+        }
+        ByteBuffer head = ByteBuffer.allocate((int) intsOffset(n)).order(ByteOrder.LITTLE_ENDIAN);
+        head.putInt(MAGIC).putInt(VERSION).putInt(n);
+        head.asCharBuffer().put(text.duplicate().clear());
+        head.position(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, head);
+            for (IntBuffer section : Arrays.asList(suffixArray, lcp, leftLcp, rightLcp)) {
+                ByteBuffer bytes = ByteBuffer.allocate(4 * n).order(ByteOrder.LITTLE_ENDIAN);
+                bytes.asIntBuffer().put(section.duplicate().clear());
+                write(channel, bytes);
+            }
+        }
+    }
+
+    // The mapping outlives the channel, so queries page the arrays in on demand
+    public static SuffixArrayIndex load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a suffix array index: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a suffix array index: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported suffix array index version " + version + ": " + file);
+            }
+            int n = buffer.getInt();
+            if (n < 0 || buffer.capacity() != intsOffset(n) + 16L * n) {
+                throw new IOException("Truncated suffix array index: " + file);
+            }
+            CharBuffer text = buffer.slice(HEADER_BYTES, 2 * n).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+            IntBuffer[] sections = new IntBuffer[4];
+            for (int i = 0; i < sections.length; i++) {
+                sections[i] = buffer.slice((int) intsOffset(n) + 4 * n * i, 4 * n).order(ByteOrder.LITTLE_ENDIAN)
+                        .asIntBuffer();
+            }
+            return new SuffixArrayIndex(text, sections[0], sections[1], sections[2], sections[3]);
+        }
+    }
+
+    private static long intsOffset(int n) {
+        return (HEADER_BYTES + 2L * n + 3) & ~3L;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int[] kasai(char[] text, int[] suffixArray) {
+        int n = text.length;
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[suffixArray[i]] = i;
+        }
+        int[] lcp = new int[n];
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            if (rank[i] > 0) {
+                int j = suffixArray[rank[i] - 1];
+                while (i + h < n && j + h < n && text[i + h] == text[j + h]) {
+                    h++;
+                }
+                lcp[rank[i]] = h;
+                if (h > 0) {
+                    h--;
+                }
+            } else {
+                h = 0;
+            }
+        }
+        return lcp;
+    }
+
+    // Fills the LCP-LR tables for every midpoint the search can visit below the step (lo, hi)
+    // and returns the LCP of ranks lo and hi: the minimum of lcp over (lo, hi], with the
+    // virtual ranks -1 and n sharing nothing with any suffix
+    private static int lcpLr(int[] lcp, int[] leftLcp, int[] rightLcp, int lo, int hi) {
+        if (hi - lo == 1) {
+            return lo < 0 || hi == lcp.length ? 0 : lcp[hi];
+        }
+        int mid = (lo + hi) >>> 1;
+        leftLcp[mid] = lcpLr(lcp, leftLcp, rightLcp, lo, mid);
+        rightLcp[mid] = lcpLr(lcp, leftLcp, rightLcp, mid, hi);
+        return Math.min(leftLcp[mid], rightLcp[mid]);
+    }
+
+    // SA-IS suffix sorting. s must end with a unique 0 sentinel and use symbols in [0, alphabetSize).
+    static int[] suffixArray(int[] s, int alphabetSize) {
+        int n = s.length;
+        int[] sa = new int[n];
+        if (n == 1) {
+            return sa;
+        }
+        boolean[] sType = new boolean[n];
+        sType[n - 1] = true;
+        for (int i = n - 2; i >= 0; i--) {
+            sType[i] = s[i] < s[i + 1] || (s[i] == s[i + 1] && sType[i + 1]);
+        }
+        int[] bucket = new int[alphabetSize];
+
+        // Sort the LMS substrings by inducing from their bucket ends
+        Arrays.fill(sa, -1);
+        bucketEnds(s, bucket);
+        for (int i = 1; i < n; i++) {
+            if (isLms(sType, i)) {
+                sa[--bucket[s[i]]] = i;
+            }
+        }
+        induce(s, sa, sType, bucket);
+
+        // Name the sorted LMS substrings and build the reduced string
+        int lmsCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (isLms(sType, sa[i])) {
+                sa[lmsCount++] = sa[i];
+            }
+        }
+        int[] names = new int[n];
+        Arrays.fill(names, -1);
+        int name = 0;
+        int previous = -1;
+        for (int i = 0; i < lmsCount; i++) {
+            int position = sa[i];
+            if (previous < 0 || !equalLmsSubstrings(s, sType, position, previous)) {
+                name++;
+                previous = position;
+            }
+            names[position] = name - 1;
+        }
+        int[] reduced = new int[lmsCount];
+        int[] lmsPositions = new int[lmsCount];
+        for (int i = 0, j = 0; i < n; i++) {
+            if (names[i] >= 0) {
+                reduced[j] = names[i];
+                lmsPositions[j++] = i;
+            }
+        }
+        names = null;
+
+        // Sort the LMS suffixes, recursing only when two LMS substrings share a name
+        int[] reducedSa;
+        if (name < lmsCount) {
+            reducedSa = suffixArray(reduced, name);
+        } else {
+            reducedSa = new int[lmsCount];
+            for (int i = 0; i < lmsCount; i++) {
+                reducedSa[reduced[i]] = i;
+            }
+        }
+
+        // Induce the full suffix array from the sorted LMS suffixes
+        Arrays.fill(sa, -1);
+        bucketEnds(s, bucket);
+        for (int i = lmsCount - 1; i >= 0; i--) {
+            int position = lmsPositions[reducedSa[i]];
+            sa[--bucket[s[position]]] = position;
+        }
+        induce(s, sa, sType, bucket);
+        return sa;
+    }
+
+    private static boolean isLms(boolean[] sType, int i) {
+        return i > 0 && sType[i] && !sType[i - 1];
+    }
+
+    private static boolean equalLmsSubstrings(int[] s, boolean[] sType, int a, int b) {
+        for (int d = 0; ; d++) {
+            if (s[a + d] != s[b + d] || sType[a + d] != sType[b + d]) {
+                return false;
+            }
+            if (d > 0 && (isLms(sType, a + d) || isLms(sType, b + d))) {
+                return isLms(sType, a + d) && isLms(sType, b + d);
+            }
+        }
+    }
+
+    // Induced sort: L-type suffixes left to right from bucket heads, then S-type right to left from bucket ends
+    private static void induce(int[] s, int[] sa, boolean[] sType, int[] bucket) {
+        int n = s.length;
+        bucketHeads(s, bucket);
+        for (int i = 0; i < n; i++) {
+            int j = sa[i] - 1;
+            if (j >= 0 && !sType[j]) {
+                sa[bucket[s[j]]++] = j;
+            }
+        }
+        bucketEnds(s, bucket);
+        for (int i = n - 1; i >= 0; i--) {
+            int j = sa[i] - 1;
+            if (j >= 0 && sType[j]) {
+                sa[--bucket[s[j]]] = j;
+            }
+        }
+    }
+
+    private static void bucketHeads(int[] s, int[] bucket) {
+        Arrays.fill(bucket, 0);
+        for (int c : s) {
+            bucket[c]++;
+        }
+        int sum = 0;
+        for (int c = 0; c < bucket.length; c++) {
+            int count = bucket[c];
+            bucket[c] = sum;
+            sum += count;
+        }
+    }
+
+    private static void bucketEnds(int[] s, int[] bucket) {
+        Arrays.fill(bucket, 0);
+        for (int c : s) {
+            bucket[c]++;
+        }
+        int sum = 0;
+        for (int c = 0; c < bucket.length; c++) {
+            sum += bucket[c];
+            bucket[c] = sum;
+        }
+    }
+}
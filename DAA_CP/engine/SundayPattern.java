@@ -0,0 +1,90 @@
+// Sunday (quick search): shifts on the text char just past the current window
+public class SundayPattern implements CompiledPattern, CharArrayMatcher {
+    private final String pattern;
+    private final CharShiftTable shift;
+
+    public SundayPattern(String pattern) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        this.pattern = pattern;
+        int m = pattern.length();
+        this.shift = new CharShiftTable(m, m + 1);
+        for (int i = 0; i < m; i++) {
+            shift.put(pattern.charAt(i), m - i);
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordBuild(MatchEngine.SUNDAY, m, 0, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return MatchEngine.SUNDAY;
+    }
+
+    @Override
+    public String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, shifts = 0, skipDistance = 0, matches = 0;
+        int pos = from;
+        while (pos <= to - m) {
+            if (SearchMetrics.ENABLED) {
+                comparisons += SearchMetrics.comparedChars(text, pos, pattern, m);
+            }
+            if (text.regionMatches(pos, pattern, 0, m)) {
+                sink.onMatch(pos, 0);
+                matches++;
+            }
+            if (pos + m >= to) {
+                break;
+            }
+            int step = shift.get(text.charAt(pos + m));
+            pos += step;
+            shifts++;
+            skipDistance += step;
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.SUNDAY, to - from, comparisons, shifts, skipDistance, 0,
+                    matches, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void search(char[] text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, shifts = 0, skipDistance = 0, matches = 0;
+        int pos = from;
+        while (pos <= to - m) {
+            if (SearchMetrics.ENABLED) {
+                comparisons += SearchMetrics.comparedChars(text, pos, pattern, m);
+            }
+            if (CharArrayMatcher.regionMatches(text, pos, pattern, 0, m)) {
+                sink.onMatch(pos, 0);
+                matches++;
+            }
+            if (pos + m >= to) {
+                break;
+            }
+            int step = shift.get(text[pos + m]);
+            pos += step;
+            shifts++;
+            skipDistance += step;
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.SUNDAY, to - from, comparisons, shifts, skipDistance, 0,
+                    matches, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+// Search surface shared by compiled patterns and compiled pattern sets.
+public interface TextMatcher {
+    MatchEngine engine();
+
+    int patternCount();
+
+    String pattern(int id);
+
+    int maxPatternLength();
+
+    // Reports every match lying entirely within text[from, to), at its index in text
+    void search(String text, int from, int to, MatchSink sink);
+
+    default void search(String text, MatchSink sink) {
+        search(text, 0, text.length(), sink);
+    }
+}
@@ -0,0 +1,52 @@
+import java.nio.ByteBuffer;
+
+// Converts byte offsets reported by the byte engines into the char (UTF-16 unit) offsets
+// the String engines report for the same decoded text. The converter remembers the last
+// offset it resolved and counts forwards or backwards from there, so a run of nearby
+// matches costs time proportional to the distance between them rather than to the offset.
+// Assumes well-formed UTF-8: every non-continuation byte starts one char, or two for the
+// 4-byte sequences that decode to a surrogate pair.
+public final class Utf8Offsets {
+    private final ByteBuffer data;
+    private long lastByte = 0;
+    private long lastChar = 0;
+
+    public Utf8Offsets(byte[] data) {
+        this(ByteBuffer.wrap(data));
+    }
+
+    // data index 0 is byte offset 0
+    public Utf8Offsets(ByteBuffer data) {
+        this.data = data;
+    }
+
+    public long charOffset(long byteOffset) {
+        if (byteOffset < 0 || byteOffset > data.limit()) {
+            throw new IndexOutOfBoundsException("Byte offset " + byteOffset + " outside 0.." + data.limit());
+        }
+        if (byteOffset >= lastByte) {
+            lastChar += charCount(data, (int) lastByte, (int) byteOffset);
+        } else {
+            lastChar -= charCount(data, (int) byteOffset, (int) lastByte);
+        }
+        lastByte = byteOffset;
+        return lastChar;
+    }
+
+    // Wraps a sink so it receives char offsets instead of byte offsets
+    public StreamMatchSink charOffsets(StreamMatchSink sink) {
+        return (start, patternId) -> sink.onMatch(charOffset(start), patternId);
+    }
+
+    // Number of chars that buffer[from, to) decodes to
+    public static int charCount(ByteBuffer buffer, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int b = buffer.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                count += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+// Z Algorithm matcher. Only the pattern's Z array is built; the text is then scanned
+// with the same Z-box technique, keeping [left, right) as the rightmost text window
+// known to equal a prefix of the pattern. Working memory is O(m) whatever the text size,
+// and no separator char is needed, so texts containing '$' match correctly.
+public class ZPattern implements CompiledPattern, CharArrayMatcher {
+    private final String pattern;
+    private final int[] Z;
+
+    public ZPattern(String pattern) {
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        this.pattern = pattern;
+        this.Z = computeZ(pattern);
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordBuild(MatchEngine.Z_ALGORITHM, pattern.length(), 0, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public MatchEngine engine() {
+        return MatchEngine.Z_ALGORITHM;
+    }
+
+    @Override
+    public String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public void search(String text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, matches = 0;
+        int left = from, right = from;
+        for (int i = from; i <= to - m; i++) {
+            int len = 0;
+            if (i < right) {
+                len = Math.min(Z[i - left], right - i);
+            }
+            if (i + len >= right) {
+                int extendedFrom = len;
+                while (len < m && i + len < to && text.charAt(i + len) == pattern.charAt(len)) {
+                    len++;
+                }
+                comparisons += len - extendedFrom + (len < m && i + len < to ? 1 : 0);
+                left = i;
+                right = i + len;
+            }
+            if (len == m) {
+                sink.onMatch(i, 0);
+                matches++;
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.Z_ALGORITHM, to - from, comparisons, 0, 0, 0, matches,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void search(char[] text, int from, int to, MatchSink sink) {
+        int m = pattern.length();
+        if (m == 0) {
+            return;
+        }
+        long startNanos = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0, matches = 0;
+        int left = from, right = from;
+        for (int i = from; i <= to - m; i++) {
+            int len = 0;
+            if (i < right) {
+                len = Math.min(Z[i - left], right - i);
+            }
+            if (i + len >= right) {
+                int extendedFrom = len;
+                while (len < m && i + len < to && text[i + len] == pattern.charAt(len)) {
+                    len++;
+                }
+                comparisons += len - extendedFrom + (len < m && i + len < to ? 1 : 0);
+                left = i;
+                right = i + len;
+            }
+            if (len == m) {
+                sink.onMatch(i, 0);
+                matches++;
+            }
+        }
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.recordSearch(MatchEngine.Z_ALGORITHM, to - from, comparisons, 0, 0, 0, matches,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    // Z[k] is the length of the longest common prefix of the pattern and pattern[k..]
+    private static int[] computeZ(String pattern) {
+        int m = pattern.length();
+        int[] Z = new int[m];
+        if (m == 0) {
+            return Z;
+        }
+        Z[0] = m;
+        int left = 0, right = 0;
+        for (int i = 1; i < m; i++) {
+            if (i < right) {
+                Z[i] = Math.min(Z[i - left], right - i);
+            }
+            while (i + Z[i] < m && pattern.charAt(Z[i]) == pattern.charAt(i + Z[i])) {
+                Z[i]++;
+            }
+            if (i + Z[i] > right) {
+                left = i;
+                right = i + Z[i];
+            }
+        }
+        return Z;
+    }
+}
@@ -1,18 +1,15 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 
 public class IntegratedMatchingGUI {
 
     private JFrame frame;
     private JPanel mainMenuPanel, dnaMatchingPanel, stringMatchingPanel;
+    private SearchWorker currentSearch;
+    private LiveSearch liveSearch;
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new IntegratedMatchingGUI().createAndShowGUI());
@@ -21,7 +18,7 @@ public class IntegratedMatchingGUI {
     private void createAndShowGUI() {
         frame = new JFrame("DNA and String Matching Algorithms");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(700, 500);
+        frame.setSize(700, 600);
         frame.setLayout(new CardLayout());
 
         // Create Main Menu
@@ -132,45 +129,120 @@ public class IntegratedMatchingGUI {
         JTextArea patternInput = new JTextArea(2, 50);
         JScrollPane patternScroll = new JScrollPane(patternInput);
 
-        JTextArea outputArea = new JTextArea(10, 50);
-        outputArea.setEditable(false);
-        JScrollPane outputScroll = new JScrollPane(outputArea);
+        MatchResultView resultView = new MatchResultView(10);
 
         JLabel algorithmLabel = new JLabel("Choose Algorithm:");
-        String[] algorithms = { "Aho-Corasick", "Boyer-Moore", "KMP", "Z-Algorithm" };
+        String[] algorithms = { "Auto", "Aho-Corasick", "Boyer-Moore", "KMP", "Z-Algorithm", "Approximate" };
         JComboBox<String> algorithmDropdown = new JComboBox<>(algorithms);
 
+        // Settings for approximate matching
+        JLabel maxErrorsLabel = new JLabel("Max errors:");
+        JSpinner maxErrorsSpinner = new JSpinner(new SpinnerNumberModel(1, 0, 64, 1));
+        JComboBox<ApproximateMatcher.Mode> approximateModeDropdown = new JComboBox<>(ApproximateMatcher.Mode.values());
+
         JButton runButton = new JButton("Run String Matching");
 
+        // Progress, cancellation and throughput for the background search
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        JLabel statusLabel = new JLabel(" ");
+        JLabel planLabel = new JLabel(" ");
+
+        // Live mode: after Run, edits to the text update the results without a full rescan
+        JCheckBox liveCheckBox = new JCheckBox("Live");
+        liveCheckBox.setToolTipText("Keep the matches up to date while the text is edited (exact engines only)");
+
         // Add action listener to run button
         runButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                String text = textInput.getText().trim();
+                // Live offsets must match the document, so the text is not trimmed in live mode
+                String text = liveCheckBox.isSelected() ? textInput.getText() : textInput.getText().trim();
                 String pattern = patternInput.getText().trim();
                 String algorithm = (String) algorithmDropdown.getSelectedItem();
 
                 if (algorithm != null) {
+                    stopLiveSearch();
+                    SearchWorker.ChunkSearch search;
+                    planLabel.setText(" ");
+                    planLabel.setToolTipText(null);
                     switch (algorithm) {
+                        case "Auto":
+                            EnginePlanner.Plan plan = autoPlan(text, pattern);
+                            planLabel.setText("Auto chose " + plan.engine().displayName());
+                            planLabel.setToolTipText(plan.reasoning());
+                            search = plan.engine().isMultiPattern()
+                                    ? SearchWorker.namedMatches(plan.matcher(), text)
+                                    : SearchWorker.indices(plan.matcher(), text);
+                            break;
                         case "Aho-Corasick":
                             List<String> patterns = Arrays.asList(pattern.split(","));
-                            outputArea.setText(ahoCorasickSearch(text, patterns));
+                            search = ahoCorasickSearch(text, patterns);
                             break;
                         case "Boyer-Moore":
-                            outputArea.setText(boyerMooreSearch(text, pattern));
+                            search = boyerMooreSearch(text, pattern);
                             break;
                         case "KMP":
-                            outputArea.setText(kmpSearch(text, pattern));
+                            search = kmpSearch(text, pattern);
                             break;
                         case "Z-Algorithm":
-                            outputArea.setText(zAlgorithm(text, pattern));
+                            search = zAlgorithm(text, pattern);
+                            break;
+                        case "Approximate":
+                            if (pattern.isEmpty()) {
+                                resultView.showMessage("Please enter a pattern.");
+                                return;
+                            }
+                            search = approximateSearch(text, pattern, (Integer) maxErrorsSpinner.getValue(),
+                                    (ApproximateMatcher.Mode) approximateModeDropdown.getSelectedItem());
                             break;
                         default:
-                            outputArea.setText("Please select an algorithm.");
+                            resultView.showMessage("Please select an algorithm.");
+                            return;
                     }
+
+                    LiveSearch live = liveCheckBox.isSelected() && search.matcher() != null
+                            ? new LiveSearch(textInput.getDocument(), search.matcher(), resultView, statusLabel)
+                            : null;
+                    if (liveCheckBox.isSelected() && live == null) {
+                        planLabel.setText("Live mode needs an exact engine");
+                    }
+                    liveSearch = live;
+
+                    // Search in the background; matches are appended as each chunk finishes.
+                    // If the text was edited meanwhile, live mode starts over with the new text.
+                    runButton.setEnabled(false);
+                    cancelButton.setEnabled(true);
+                    currentSearch = new SearchWorker(text.length(), search, resultView, progressBar, statusLabel, () -> {
+                        runButton.setEnabled(true);
+                        cancelButton.setEnabled(false);
+                        if (live != null && live == liveSearch) {
+                            if (currentSearch.isCancelled()) {
+                                stopLiveSearch();
+                            } else if (!live.start()) {
+                                runButton.doClick();
+                            }
+                        }
+                    });
+                    currentSearch.execute();
                 }
             }
         });
 
+        // Cancel interrupts the running search at its next chunk
+        cancelButton.addActionListener(e -> {
+            if (currentSearch != null) {
+                currentSearch.cancel(true);
+            }
+        });
+
+        liveCheckBox.addActionListener(e -> {
+            if (!liveCheckBox.isSelected()) {
+                stopLiveSearch();
+            }
+        });
+
         JButton backButton = new JButton("Back to Main Menu");
 
         // Layout
@@ -180,8 +252,16 @@ public class IntegratedMatchingGUI {
         stringMatchingPanel.add(patternScroll);
         stringMatchingPanel.add(algorithmLabel);
         stringMatchingPanel.add(algorithmDropdown);
+        stringMatchingPanel.add(maxErrorsLabel);
+        stringMatchingPanel.add(maxErrorsSpinner);
+        stringMatchingPanel.add(approximateModeDropdown);
         stringMatchingPanel.add(runButton);
-        stringMatchingPanel.add(outputScroll);
+        stringMatchingPanel.add(cancelButton);
+        stringMatchingPanel.add(liveCheckBox);
+        stringMatchingPanel.add(progressBar);
+        stringMatchingPanel.add(statusLabel);
+        stringMatchingPanel.add(planLabel);
+        stringMatchingPanel.add(resultView);
         stringMatchingPanel.add(backButton);
 
         // Back button action
@@ -195,239 +275,47 @@ public class IntegratedMatchingGUI {
 
     // DNA Matching Logic
     private String dnaMatch(String seq1, String seq2) {
-        int matches = 0;
-        for (int i = 0; i < seq1.length(); i++) {
-            if (seq1.charAt(i) == seq2.charAt(i)) {
-                matches++;
-            }
-        }
-        double matchPercentage = ((double) matches / seq1.length()) * 100;
+        double matchPercentage = PackedDna.pack(seq1).matchPercentage(PackedDna.pack(seq2));
         return String.format("Match Percentage: %.2f%%", matchPercentage);
     }
 
-    // Aho-Corasick Algorithm Implementation
-    private String ahoCorasickSearch(String text, List<String> patterns) {
-        AhoCorasickTrie trie = new AhoCorasickTrie();
-        for (String pattern : patterns) {
-            trie.addPattern(pattern);
+    private void stopLiveSearch() {
+        if (liveSearch != null) {
+            liveSearch.stop();
+            liveSearch = null;
         }
-        trie.buildFailureLinks();
-
-        List<String> results = trie.search(text);
-        return String.join("\n", results);
     }
 
-    // Boyer-Moore Algorithm
-    private String boyerMooreSearch(String text, String pattern) {
-        List<Integer> resultIndices = boyerMoore(text, pattern);
-        List<String> results = new ArrayList<>();
-        for (int index : resultIndices) {
-            results.add("Pattern found at index: " + index);
-        }
-        return String.join("\n", results);
+    // Auto: the planner picks the engine; comma-separated input is searched as a pattern set
+    private EnginePlanner.Plan autoPlan(String text, String pattern) {
+        List<String> patterns = pattern.contains(",") ? Arrays.asList(pattern.split(",")) : List.of(pattern);
+        return new EnginePlanner().plan(patterns, text);
     }
 
-    // Knuth-Morris-Pratt (KMP) Algorithm
-    private String kmpSearch(String text, String pattern) {
-        List<Integer> resultIndices = kmp(text, pattern);
-        List<String> results = new ArrayList<>();
-        for (int index : resultIndices) {
-            results.add("Pattern found at index: " + index);
-        }
-        return String.join("\n", results);
-    }
-
-    // Z Algorithm
-    private String zAlgorithm(String text, String pattern) {
-        List<Integer> resultIndices = zAlgorithmMatch(text, pattern);
-        List<String> results = new ArrayList<>();
-        for (int index : resultIndices) {
-            results.add("Pattern found at index: " + index);
-        }
-        return String.join("\n", results);
-    }
-
-    // Helper Functions for Boyer-Moore
-    private List<Integer> boyerMoore(String text, String pattern) {
-        int[] badChar = preprocessBadChar(pattern);
-        List<Integer> result = new ArrayList<>();
-        int n = text.length();
-        int m = pattern.length();
-        int shift = 0;
-
-        while (shift <= n - m) {
-            int j = m - 1;
-            while (j >= 0 && pattern.charAt(j) == text.charAt(shift + j)) {
-                j--;
-            }
-            if (j < 0) {
-                result.add(shift);
-                shift += (shift + m < n) ? m - badChar[text.charAt(shift + m)] : 1;
-            } else {
-                shift += Math.max(1, j - badChar[text.charAt(shift + j)]);
-            }
-        }
-        return result;
-    }
-
-    private int[] preprocessBadChar(String pattern) {
-        int[] badChar = new int[256];
-        Arrays.fill(badChar, -1);
-        for (int i = 0; i < pattern.length(); i++) {
-            badChar[pattern.charAt(i)] = i;
-        }
-        return badChar;
-    }
-
-    // Helper Functions for KMP
-    private List<Integer> kmp(String text, String pattern) {
-        int[] lps = computeLPS(pattern);
-        List<Integer> result = new ArrayList<>();
-        int i = 0, j = 0;
-        while (i < text.length()) {
-            if (pattern.charAt(j) == text.charAt(i)) {
-                i++;
-                j++;
-            }
-            if (j == pattern.length()) {
-                result.add(i - j);
-                j = lps[j - 1];
-            } else if (i < text.length() && pattern.charAt(j) != text.charAt(i)) {
-                if (j != 0) {
-                    j = lps[j - 1];
-                } else {
-                    i++;
-                }
-            }
-        }
-        return result;
-    }
-
-    private int[] computeLPS(String pattern) {
-        int m = pattern.length();
-        int[] lps = new int[m];
-        int len = 0;
-        int i = 1;
-        while (i < m) {
-            if (pattern.charAt(i) == pattern.charAt(len)) {
-                len++;
-                lps[i] = len;
-                i++;
-            } else {
-                if (len != 0) {
-                    len = lps[len - 1];
-                } else {
-                    lps[i] = 0;
-                    i++;
-                }
-            }
-        }
-        return lps;
+    // Aho-Corasick Algorithm Implementation
+    private SearchWorker.ChunkSearch ahoCorasickSearch(String text, List<String> patterns) {
+        return SearchWorker.namedMatches(PatternCache.shared().compileSet(MatchEngine.AHO_CORASICK, patterns), text);
     }
 
-    // Helper Functions for Z Algorithm
-    private List<Integer> zAlgorithmMatch(String text, String pattern) {
-        String concat = pattern + "$" + text;
-        int l = concat.length();
-        int[] Z = new int[l];
-        List<Integer> result = new ArrayList<>();
-        int left = 0, right = 0, k;
-
-        for (int i = 1; i < l; i++) {
-            if (i > right) {
-                left = right = i;
-                while (right < l && concat.charAt(right) == concat.charAt(right - left)) {
-                    right++;
-                }
-                Z[i] = right - left;
-                right--;
-            } else {
-                k = i - left;
-                if (Z[k] < right - i + 1) {
-                    Z[i] = Z[k];
-                } else {
-                    left = i;
-                    while (right < l && concat.charAt(right) == concat.charAt(right - left)) {
-                        right++;
-                    }
-                    Z[i] = right - left;
-                    right--;
-                }
-            }
-            if (Z[i] == pattern.length()) {
-                result.add(i - pattern.length() - 1);
-            }
-        }
-        return result;
+    // Approximate Matching (k mismatches or k edits)
+    private SearchWorker.ChunkSearch approximateSearch(String text, String pattern, int maxErrors,
+                                                       ApproximateMatcher.Mode mode) {
+        return SearchWorker.approximate(PatternCache.shared().compileApproximate(pattern, maxErrors, mode), text);
     }
-}
 
-// Simple Aho-Corasick Trie Implementation for Multiple Pattern Matching
-class AhoCorasickTrie {
-    private final TrieNode root = new TrieNode();
-
-    public void addPattern(String pattern) {
-        TrieNode node = root;
-        for (char c : pattern.toCharArray()) {
-            node = node.children.computeIfAbsent(c, k -> new TrieNode());
-        }
-        node.pattern = pattern;
+    // Boyer-Moore Algorithm
+    private SearchWorker.ChunkSearch boyerMooreSearch(String text, String pattern) {
+        return SearchWorker.indices(PatternCache.shared().compile(MatchEngine.BOYER_MOORE, pattern), text);
     }
 
-    public void buildFailureLinks() {
-        Queue<TrieNode> queue = new LinkedList<>();
-        for (TrieNode child : root.children.values()) {
-            child.failureLink = root;
-            queue.add(child);
-        }
-
-        while (!queue.isEmpty()) {
-            TrieNode current = queue.poll();
-            for (Map.Entry<Character, TrieNode> entry : current.children.entrySet()) {
-                char c = entry.getKey();
-                TrieNode child = entry.getValue();
-                TrieNode failureLink = current.failureLink;
-                while (failureLink != null && !failureLink.children.containsKey(c)) {
-                    failureLink = failureLink.failureLink;
-                }
-                if (failureLink == null) {
-                    child.failureLink = root;
-                } else {
-                    child.failureLink = failureLink.children.get(c);
-                }
-                queue.add(child);
-            }
-        }
+    // Knuth-Morris-Pratt (KMP) Algorithm
+    private SearchWorker.ChunkSearch kmpSearch(String text, String pattern) {
+        return SearchWorker.indices(PatternCache.shared().compile(MatchEngine.KMP, pattern), text);
     }
 
-    public List<String> search(String text) {
-        TrieNode node = root;
-        List<String> results = new ArrayList<>();
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            while (node != null && !node.children.containsKey(c)) {
-                node = node.failureLink;
-            }
-            if (node == null) {
-                node = root;
-                continue;
-            }
-            node = node.children.get(c);
-            TrieNode temp = node;
-            while (temp != root) {
-                if (temp.pattern != null) {
-                    results.add("Pattern found at index " + (i - temp.pattern.length() + 1) + ": " + temp.pattern);
-                }
-                temp = temp.failureLink;
-            }
-        }
-        return results;
+    // Z Algorithm
+    private SearchWorker.ChunkSearch zAlgorithm(String text, String pattern) {
+        return SearchWorker.indices(PatternCache.shared().compile(MatchEngine.Z_ALGORITHM, pattern), text);
     }
 
-    static class TrieNode {
-        Map<Character, TrieNode> children = new HashMap<>();
-        TrieNode failureLink = null;
-        String pattern = null;
-    }
 }
-
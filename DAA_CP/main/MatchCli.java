@@ -0,0 +1,353 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntFunction;
+
+// Headless command-line runner for the matching engines.
+// Streams each input through the chosen engine, prints one "source:offset:pattern" line
+// per match on stdout and a throughput summary on stderr.
+//
+//   java MatchCli -e <engine> (-p <pattern>)... [-f <pattern file>] [-a <automaton file>] [-b <buffer chars>] [-j <threads> | -P | -m] [-q] [-v] [file ...]
+//
+// With no files, stdin is searched. Offsets are char offsets into the decoded UTF-8 input.
+// With -j, whole files are searched concurrently by a BatchSearchScheduler and printed in
+// the order given; -v adds the scheduler's queue depth, reorder buffer and docs/s to the summary.
+// With -P, each input is read whole and its segments are searched in parallel by ParallelSearch,
+// which pays off for one large file rather than many small ones.
+// With -m, files are memory-mapped and searched as raw bytes by the byte engines (Boyer-Moore,
+// KMP, Aho-Corasick and its DFA), so no String is built; byte offsets are converted back to
+// char offsets with Utf8Offsets, which needs each file to fit one 2 GB mapping.
+// "-a" searches with an automaton saved by MappedAhoCorasick's build step instead of
+// compiling patterns; it is mapped rather than loaded, so startup does not grow with its size.
+// "-e auto" lets EnginePlanner choose from the patterns and a sample of the first file and
+// prints its reasoning on stderr.
+// Exit status is 0 when something matched, 1 when nothing did and 2 on errors.
+public class MatchCli {
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println("MatchCli: " + e.getMessage());
+            System.err.println("Usage: java MatchCli -e <engine> (-p <pattern>)... [-f <pattern file>] [-a <automaton file>] [-b <buffer chars>] [-j <threads> | -P | -m] [-q] [-v] [file ...]");
+            System.exit(2);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("MatchCli: " + e.getMessage());
+            System.exit(2);
+        } catch (ExecutionException e) {
+            System.err.println("MatchCli: " + e.getCause());
+            System.exit(2);
+        } catch (InterruptedException e) {
+            System.exit(2);
+        }
+    }
+
+    private static int run(String[] args) throws IOException, InterruptedException, ExecutionException {
+        String engineName = null;
+        Path automatonFile = null;
+        List<String> patterns = new ArrayList<>();
+        List<String> inputs = new ArrayList<>();
+        int bufferSize = StreamingSearch.DEFAULT_BUFFER_SIZE;
+        int threads = 1;
+        boolean parallel = false;
+        boolean mapped = false;
+        boolean quiet = false;
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-e":
+                    engineName = argument(args, ++i);
+                    break;
+                case "-p":
+                    patterns.add(argument(args, ++i));
+                    break;
+                case "-f":
+                    for (String line : Files.readAllLines(Path.of(argument(args, ++i)), StandardCharsets.UTF_8)) {
+                        if (!line.isEmpty()) {
+                            patterns.add(line);
+                        }
+                    }
+                    break;
+                case "-a":
+                    automatonFile = Path.of(argument(args, ++i));
+                    break;
+                case "-b":
+                    bufferSize = Integer.parseInt(argument(args, ++i));
+                    break;
+                case "-j":
+                    threads = Integer.parseInt(argument(args, ++i));
+                    break;
+                case "-P":
+                    parallel = true;
+                    break;
+                case "-m":
+                    mapped = true;
+                    break;
+                case "-q":
+                    quiet = true;
+                    break;
+                case "-v":
+                    verbose = true;
+                    break;
+                default:
+                    inputs.add(args[i]);
+            }
+        }
+        if (automatonFile != null && (engineName != null || !patterns.isEmpty())) {
+            throw new IllegalArgumentException("-a cannot be combined with -e, -p or -f");
+        }
+        if (engineName == null && automatonFile == null) {
+            throw new IllegalArgumentException("no engine given (-e)");
+        }
+        if (patterns.isEmpty() && automatonFile == null) {
+            throw new IllegalArgumentException("no pattern given (-p or -f)");
+        }
+        if (inputs.isEmpty()) {
+            inputs.add("-");
+        }
+        if ((threads > 1 ? 1 : 0) + (parallel ? 1 : 0) + (mapped ? 1 : 0) > 1) {
+            throw new IllegalArgumentException("-j, -P and -m are alternatives");
+        }
+        if (mapped) {
+            if (automatonFile != null || engineName.equalsIgnoreCase("auto")) {
+                throw new IllegalArgumentException("-m needs an engine from -e, not -a or auto");
+            }
+            if (inputs.contains("-")) {
+                throw new IllegalArgumentException("-m searches files; stdin cannot be mapped");
+            }
+            return searchMapped(MatchEngine.fromDisplayName(engineName), patterns, inputs, quiet);
+        }
+        MatchEngine engine;
+        TextMatcher matcher;
+        if (automatonFile != null) {
+            matcher = MappedAhoCorasick.load(automatonFile);
+            engine = matcher.engine();
+        } else if (engineName.equalsIgnoreCase("auto")) {
+            EnginePlanner.Plan plan = planFor(patterns, inputs, threads == 1 && !parallel);
+            System.err.println("plan: " + plan);
+            engine = plan.engine();
+            matcher = plan.matcher();
+        } else if ((engine = MatchEngine.fromDisplayName(engineName)).isMultiPattern()) {
+            matcher = PatternCache.shared().compileSet(engine, patterns);
+        } else if (patterns.size() == 1) {
+            matcher = PatternCache.shared().compile(engine, patterns.get(0));
+        } else {
+            throw new IllegalArgumentException(engine + " takes a single pattern");
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        long bytes = 0;
+        long chars = 0;
+        long[] matches = new long[1];
+        long start = System.nanoTime();
+        if (threads > 1) {
+            boolean print = !quiet;
+            try (BatchSearchScheduler scheduler = new BatchSearchScheduler(matcher, threads, 4 * threads,
+                    (sequence, source, found) -> {
+                        matches[0] += found.size();
+                        if (print) {
+                            try {
+                                for (int i = 0; i < found.size(); i++) {
+                                    out.write(source + ":" + found.start(i) + ":" + matcher.pattern(found.patternId(i)) + "\n");
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    })) {
+                for (String input : inputs) {
+                    byte[] content = input.equals("-") ? System.in.readAllBytes() : Files.readAllBytes(Path.of(input));
+                    String text = new String(content, StandardCharsets.UTF_8);
+                    bytes += content.length;
+                    chars += text.length();
+                    scheduler.submit(input.equals("-") ? "(stdin)" : input, text);
+                }
+                scheduler.awaitCompletion();
+                if (verbose) {
+                    System.err.printf("scheduler: threads=%d documents=%d peakQueueDepth=%d queueDepth=%d reorderBuffer=%d docs/s=%.1f%n",
+                            threads, scheduler.documentsCompleted(), scheduler.peakQueueDepth(), scheduler.queueDepth(),
+                            scheduler.reorderBufferSize(), scheduler.documentsPerSecond());
+                }
+            }
+        }
+        if (parallel) {
+            ParallelSearch search = new ParallelSearch();
+            for (String input : inputs) {
+                byte[] content = input.equals("-") ? System.in.readAllBytes() : Files.readAllBytes(Path.of(input));
+                String text = new String(content, StandardCharsets.UTF_8);
+                bytes += content.length;
+                chars += text.length();
+                StreamMatchSink sink = printer(out, input, matcher::pattern, matches, quiet);
+                search.search(matcher, text, sink::onMatch);
+            }
+        }
+        for (String input : threads > 1 || parallel ? List.<String>of() : inputs) {
+            try (CountingInputStream in = new CountingInputStream(
+                    input.equals("-") ? System.in : Files.newInputStream(Path.of(input)))) {
+                Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), bufferSize);
+                chars += StreamingSearch.search(reader, matcher, bufferSize,
+                        printer(out, input, matcher::pattern, matches, quiet));
+                bytes += in.count;
+            }
+        }
+        out.flush();
+        summary(engine, inputs.size(), bytes, chars, matches[0], start);
+        return matches[0] > 0 ? 0 : 1;
+    }
+
+    // Byte engines over each mapped file; the whole file is mapped once more for Utf8Offsets
+    private static int searchMapped(MatchEngine engine, List<String> patterns, List<String> inputs, boolean quiet)
+            throws IOException {
+        MappedSearch search;
+        IntFunction<String> patternName;
+        if (!engine.isMultiPattern() && patterns.size() > 1) {
+            throw new IllegalArgumentException(engine + " takes a single pattern");
+        }
+        switch (engine) {
+            case BOYER_MOORE: {
+                ByteBoyerMoore pattern = new ByteBoyerMoore(patterns.get(0));
+                search = (file, sink) -> MappedFileSearch.search(file, pattern, sink);
+                patternName = id -> pattern.pattern();
+                break;
+            }
+            case KMP: {
+                ByteKmp pattern = new ByteKmp(patterns.get(0));
+                search = (file, sink) -> MappedFileSearch.search(file, pattern, sink);
+                patternName = id -> pattern.pattern();
+                break;
+            }
+            case AHO_CORASICK:
+            case AHO_CORASICK_DFA: {
+                ByteAhoCorasick set = engine == MatchEngine.AHO_CORASICK_DFA
+                        ? ByteAhoCorasick.compileDfa(patterns) : ByteAhoCorasick.compile(patterns);
+                search = (file, sink) -> MappedFileSearch.search(file, set, sink);
+                patternName = set::pattern;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("-m supports Boyer-Moore, KMP, Aho-Corasick and Aho-Corasick DFA, not "
+                        + engine);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        long bytes = 0;
+        long chars = 0;
+        long[] matches = new long[1];
+        long start = System.nanoTime();
+        for (String input : inputs) {
+            Path file = Path.of(input);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException(input + " is larger than 2 GB; -m needs one mapping per file for char offsets");
+                }
+                ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                Utf8Offsets offsets = new Utf8Offsets(content);
+                bytes += search.search(file, offsets.charOffsets(printer(out, input, patternName, matches, quiet)));
+                chars += offsets.charOffset(content.limit());
+            }
+        }
+        out.flush();
+        summary(engine, inputs.size(), bytes, chars, matches[0], start);
+        return matches[0] > 0 ? 0 : 1;
+    }
+
+    private interface MappedSearch {
+        long search(Path file, StreamMatchSink sink) throws IOException;
+    }
+
+    // Counts each match and, unless quiet, prints it as source:offset:pattern
+    private static StreamMatchSink printer(Writer out, String input, IntFunction<String> pattern, long[] matches,
+                                           boolean quiet) {
+        String source = input.equals("-") ? "(stdin)" : input;
+        return (offset, patternId) -> {
+            matches[0]++;
+            if (!quiet) {
+                try {
+                    out.write(source + ":" + offset + ":" + pattern.apply(patternId) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static void summary(MatchEngine engine, int inputs, long bytes, long chars, long matches, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("engine=%s inputs=%d bytes=%d chars=%d matches=%d time=%.3fs throughput=%.1f MB/s%n",
+                engine.displayName(), inputs, bytes, chars, matches, seconds,
+                seconds > 0 ? bytes / seconds / 1e6 : 0.0);
+    }
+
+    // Samples the first input when it is a file; stdin cannot be read ahead without consuming it
+    private static EnginePlanner.Plan planFor(List<String> patterns, List<String> inputs, boolean streamed)
+            throws IOException {
+        String sample = null;
+        long length = 0;
+        for (String input : inputs) {
+            if (input.equals("-")) {
+                length = -1;
+                break;
+            }
+            length += Files.size(Path.of(input));
+        }
+        if (!inputs.get(0).equals("-")) {
+            try (Reader reader = Files.newBufferedReader(Path.of(inputs.get(0)), StandardCharsets.UTF_8)) {
+                char[] buffer = new char[EnginePlanner.SAMPLE_SIZE];
+                int n = 0, read;
+                while (n < buffer.length && (read = reader.read(buffer, n, buffer.length - n)) > 0) {
+                    n += read;
+                }
+                sample = new String(buffer, 0, n);
+            }
+        }
+        return new EnginePlanner().plan(patterns, sample, length, streamed);
+    }
+
+    private static String argument(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
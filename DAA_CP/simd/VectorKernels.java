@@ -0,0 +1,61 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API kernels for SimdSupport. This folder needs --add-modules jdk.incubator.vector
+// to compile and run, so it is not a source root of the module; SimdSupport loads the class
+// reflectively and falls back to scalar loops without it. Build it into the module output with
+//   javac --add-modules jdk.incubator.vector -cp <output> -d <output> simd/VectorKernels.java
+final class VectorKernels implements SimdSupport.Kernels {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public long countDifferentBases(long[] a, long[] b) {
+        int i = 0;
+        LongVector sum = LongVector.zero(LONGS);
+        for (int bound = LONGS.loopBound(a.length); i < bound; i += LONGS.length()) {
+            LongVector x = LongVector.fromArray(LONGS, a, i).lanewise(VectorOperators.XOR, LongVector.fromArray(LONGS, b, i));
+            // One bit per differing base, then a SWAR population count per lane
+            x = x.lanewise(VectorOperators.OR, x.lanewise(VectorOperators.LSHR, 1)).lanewise(VectorOperators.AND, 0x5555555555555555L);
+            x = x.lanewise(VectorOperators.AND, 0x3333333333333333L)
+                    .add(x.lanewise(VectorOperators.LSHR, 2).lanewise(VectorOperators.AND, 0x3333333333333333L));
+            x = x.add(x.lanewise(VectorOperators.LSHR, 4)).lanewise(VectorOperators.AND, 0x0F0F0F0F0F0F0F0FL);
+            x = x.add(x.lanewise(VectorOperators.LSHR, 8));
+            x = x.add(x.lanewise(VectorOperators.LSHR, 16));
+            x = x.add(x.lanewise(VectorOperators.LSHR, 32)).lanewise(VectorOperators.AND, 0x7FL);
+            sum = sum.add(x);
+        }
+        long count = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            long x = a[i] ^ b[i];
+            count += Long.bitCount((x | (x >>> 1)) & 0x5555555555555555L);
+        }
+        return count;
+    }
+
+    @Override
+    public int indexOfCandidate(ByteBuffer buffer, int from, int to, byte first, byte last, int m) {
+        int limit = to - m;
+        int i = from;
+        ByteVector firstBytes = ByteVector.broadcast(BYTES, first);
+        ByteVector lastBytes = ByteVector.broadcast(BYTES, last);
+        for (; i + BYTES.length() - 1 <= limit; i += BYTES.length()) {
+            VectorMask<Byte> hits = ByteVector.fromByteBuffer(BYTES, buffer, i, ByteOrder.nativeOrder()).eq(firstBytes)
+                    .and(ByteVector.fromByteBuffer(BYTES, buffer, i + m - 1, ByteOrder.nativeOrder()).eq(lastBytes));
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        for (; i <= limit; i++) {
+            if (buffer.get(i) == first && buffer.get(i + m - 1) == last) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,16 @@
+import java.util.List;
+
+// Compact automaton against the HashMap trie it replaced
+final class AhoCorasickCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    AhoCorasickCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        check.expect("Aho-Corasick", CheckSupport.baseline(text, patterns),
+                CheckSupport.found(CompactAhoCorasick.compile(patterns), text), text, patterns);
+    }
+}
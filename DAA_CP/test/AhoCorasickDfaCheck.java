@@ -0,0 +1,30 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Dense-table Aho-Corasick DFA against the trie and, on a sub-range, brute force
+final class AhoCorasickDfaCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    AhoCorasickDfaCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkAhoCorasickDfa(text, patterns);
+    }
+
+    // Full DFA against the HashMap trie, and on a random range against brute force
+    private void checkAhoCorasickDfa(String text, List<String> patterns) {
+        List<String> expected = CheckSupport.baseline(text, patterns);
+        CompactAhoCorasick dfa = CompactAhoCorasick.compileDfa(patterns);
+        check.expect("Aho-Corasick DFA", expected, CheckSupport.found(dfa, text), text, patterns);
+        int from = check.random.nextInt(text.length() + 1);
+        int to = from + check.random.nextInt(text.length() - from + 1);
+        List<String> results = new ArrayList<>();
+        dfa.search(text, from, to, (start, patternId) ->
+                results.add(CheckSupport.format(start, dfa.pattern(patternId))));
+        check.expect("Aho-Corasick DFA [" + from + ", " + to + ")", CheckSupport.bruteForce(text, from, to, patterns),
+                CheckSupport.sorted(results), text, patterns);
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Bit-parallel approximate matching against dynamic-programming distances
+final class ApproximateCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    ApproximateCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkApproximate(text, alphabet);
+    }
+
+    // Hamming and edit distance by dynamic programming; a quarter of the patterns span several words
+    private void checkApproximate(String text, String alphabet) {
+        String pattern = check.randomText(alphabet, check.random.nextInt(4) == 0 ? 150 : 8);
+        if (pattern.isEmpty()) {
+            return;
+        }
+        int m = pattern.length();
+        if (text.length() > m && check.random.nextBoolean()) {
+            int at = check.random.nextInt(text.length() - m);
+            text = text.substring(0, at) + pattern + text.substring(at);
+        }
+        int maxErrors = check.random.nextInt(m / 3 + 2);
+
+        List<String> expected = new ArrayList<>();
+        for (int end = m; end <= text.length(); end++) {
+            int errors = 0;
+            for (int i = 0; i < m; i++) {
+                if (text.charAt(end - m + i) != pattern.charAt(i)) {
+                    errors++;
+                }
+            }
+            if (errors <= maxErrors) {
+                expected.add(end + ":" + errors);
+            }
+        }
+        List<String> results = new ArrayList<>();
+        new ApproximateMatcher(pattern, maxErrors, ApproximateMatcher.Mode.MISMATCHES)
+                .search(text, (end, errors) -> results.add(end + ":" + errors));
+        check.expect("mismatches k=" + maxErrors, expected, results, text, pattern);
+
+        // previous[i]: fewest edits turning pattern[0, i) into a substring ending at the current position
+        expected.clear();
+        results.clear();
+        int[] previous = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        for (int end = 1; end <= text.length(); end++) {
+            int[] current = new int[m + 1];
+            for (int i = 1; i <= m; i++) {
+                int substitution = previous[i - 1] + (pattern.charAt(i - 1) == text.charAt(end - 1) ? 0 : 1);
+                current[i] = Math.min(substitution, Math.min(current[i - 1], previous[i]) + 1);
+            }
+            if (current[m] <= maxErrors) {
+                expected.add(end + ":" + current[m]);
+            }
+            previous = current;
+        }
+        new ApproximateMatcher(pattern, maxErrors, ApproximateMatcher.Mode.EDITS)
+                .search(text, (end, errors) -> results.add(end + ":" + errors));
+        check.expect("edits k=" + maxErrors, expected, results, text, pattern);
+    }
+}
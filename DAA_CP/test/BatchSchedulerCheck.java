@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+// BatchSearchScheduler ordering and shutdown; it starts threads, so only every 20th round
+final class BatchSchedulerCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    BatchSchedulerCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws Exception {
+        if (round % 20 == 0) {
+            checkBatchScheduler(alphabet, patterns);
+            checkBatchSchedulerClose(patterns);
+        }
+    }
+
+    // Results must come back in submission order, each equal to a direct search of its document
+    private void checkBatchScheduler(String alphabet, List<String> patterns) throws Exception {
+        TextMatcher matcher = PatternCache.createSet(MatchEngine.AHO_CORASICK, patterns);
+        List<String> documents = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String document = check.randomText(alphabet, 200);
+            documents.add(document);
+            MatchBuffer matches = new MatchBuffer();
+            matcher.search(document, matches);
+            expected.add(i + " doc" + i + " " + matches.formatMatches(matcher));
+        }
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        int threads = 1 + check.random.nextInt(4);
+        int queueCapacity = 1 + check.random.nextInt(8);
+        try (BatchSearchScheduler scheduler = new BatchSearchScheduler(matcher, threads, queueCapacity,
+                (sequence, documentId, matches) ->
+                        results.add(sequence + " " + documentId + " " + matches.formatMatches(matcher)))) {
+            for (int i = 0; i < documents.size(); i++) {
+                scheduler.submit("doc" + i, documents.get(i));
+            }
+            scheduler.awaitCompletion();
+        }
+        check.expect("batch scheduler threads=" + threads + " queue=" + queueCapacity, expected, results,
+                String.join("|", documents), patterns);
+    }
+
+    // A producer blocked on the in-flight limit, with the sink stuck on the first result and deaf
+    // to interrupts, must be released by close() with the closed exception instead of hanging
+    private void checkBatchSchedulerClose(List<String> patterns) throws Exception {
+        TextMatcher matcher = PatternCache.createSet(MatchEngine.AHO_CORASICK, patterns);
+        CountDownLatch sinkRelease = new CountDownLatch(1);
+        int threads = 1 + check.random.nextInt(4);
+        int queueCapacity = 1 + check.random.nextInt(8);
+        BatchSearchScheduler scheduler = new BatchSearchScheduler(matcher, threads, queueCapacity,
+                (sequence, documentId, matches) -> {
+                    boolean interrupted = false;
+                    while (sinkRelease.getCount() > 0) {
+                        try {
+                            sinkRelease.await();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        List<String> outcome = Collections.synchronizedList(new ArrayList<>());
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; ; i++) {
+                    scheduler.submit("doc" + i, "text");
+                }
+            } catch (IllegalStateException | InterruptedException e) {
+                outcome.add(e.getClass().getSimpleName());
+            }
+        });
+        producer.setDaemon(true);
+        producer.start();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (scheduler.documentsSubmitted() < queueCapacity + 2 * threads && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        scheduler.close();
+        producer.join(10_000);
+        // Taken before the sink is let go, which would also free the producer
+        List<String> seen = new ArrayList<>(outcome);
+        sinkRelease.countDown();
+        check.expect("batch scheduler close threads=" + threads + " queue=" + queueCapacity,
+                List.of("IllegalStateException"), seen, "", patterns);
+    }
+}
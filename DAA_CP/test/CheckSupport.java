@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+// State and helpers shared by the checks of one EngineCheck run: the seeded random source,
+// the check counter, and the reference results every engine is compared against.
+final class CheckSupport {
+    final Random random;
+    private final long seed;
+    private int checks;
+
+    CheckSupport(long seed) {
+        this.random = new Random(seed);
+        this.seed = seed;
+    }
+
+    int checks() {
+        return checks;
+    }
+
+    // Prints the first disagreement with its input and exits with status 1
+    void expect(String what, Object expected, Object actual, String text, Object patterns) {
+        checks++;
+        if (!expected.equals(actual)) {
+            System.out.println("MISMATCH " + what + " (seed " + seed + ")");
+            System.out.println("  text:     \"" + text + "\"");
+            System.out.println("  patterns: " + patterns);
+            System.out.println("  expected: " + expected);
+            System.out.println("  actual:   " + actual);
+            System.exit(1);
+        }
+    }
+
+    // Whole code points, so the text is always valid UTF-16 even with surrogate pairs in the alphabet
+    String randomText(String alphabet, int maxLength) {
+        int[] codePoints = alphabet.codePoints().toArray();
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+        }
+        return sb.toString();
+    }
+
+    List<String> randomPatterns(String alphabet, int maxCount, int maxLength) {
+        int count = 1 + random.nextInt(maxCount);
+        List<String> patterns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String pattern = randomText(alphabet, maxLength - 1);
+            patterns.add(pattern.isEmpty() ? alphabet.substring(0, 1) : pattern);
+        }
+        return patterns;
+    }
+
+    // One matcher per engine: multi-pattern engines get the whole set, the others its first pattern
+    static List<TextMatcher> matchers(List<String> patterns) {
+        List<TextMatcher> matchers = new ArrayList<>();
+        for (MatchEngine engine : MatchEngine.values()) {
+            matchers.add(engine.isMultiPattern()
+                    ? PatternCache.createSet(engine, patterns)
+                    : PatternCache.create(engine, patterns.get(0)));
+        }
+        return matchers;
+    }
+
+    // Every match of every pattern, as ReferenceAhoCorasick reports them, in sorted order
+    static List<String> baseline(String text, List<String> patterns) {
+        ReferenceAhoCorasick trie = new ReferenceAhoCorasick();
+        for (String pattern : patterns) {
+            trie.addPattern(pattern);
+        }
+        trie.buildFailureLinks();
+        return sorted(trie.search(text));
+    }
+
+    // Every match the matcher reports, formatted and sorted like baseline()
+    static List<String> found(TextMatcher matcher, String text) {
+        List<String> results = new ArrayList<>();
+        matcher.search(text, (start, patternId) -> results.add(format(start, matcher.pattern(patternId))));
+        return sorted(results);
+    }
+
+    // Every match of each distinct pattern in [from, to), formatted and sorted like baseline()
+    static List<String> bruteForce(String text, int from, int to, List<String> patterns) {
+        List<String> results = new ArrayList<>();
+        for (String pattern : new LinkedHashSet<>(patterns)) {
+            for (int start : bruteForce(text, from, to, pattern)) {
+                results.add(format(start, pattern));
+            }
+        }
+        return sorted(results);
+    }
+
+    static List<Integer> bruteForce(String text, int from, int to, String pattern) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = from; i + pattern.length() <= to; i++) {
+            if (text.startsWith(pattern, i)) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    static List<Integer> bruteForce(byte[] text, byte[] pattern) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i + pattern.length <= text.length; i++) {
+            if (Arrays.equals(text, i, i + pattern.length, pattern, 0, pattern.length)) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    static String format(long start, String pattern) {
+        return "Pattern found at index " + start + ": " + pattern;
+    }
+
+    static List<String> sorted(List<String> rows) {
+        Collections.sort(rows);
+        return rows;
+    }
+
+    // A fresh file per check, since a file that is still mapped cannot be rewritten on Windows
+    static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("engine-check", ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    static Path scratchFile(byte[] bytes) throws IOException {
+        return Files.write(tempFile(), bytes);
+    }
+}
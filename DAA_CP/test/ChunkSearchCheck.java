@@ -0,0 +1,49 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// SearchWorker chunk searches, run chunk by chunk, against one pass over the whole text
+final class ChunkSearchCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    ChunkSearchCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkChunkSearch(text, patterns);
+    }
+
+    // SearchWorker's per-chunk searches must together report exactly the whole-text rows
+    private void checkChunkSearch(String text, List<String> patterns) {
+        int chunkSize = 1 + check.random.nextInt(16);
+        for (TextMatcher matcher : CheckSupport.matchers(patterns)) {
+            List<String> whole = new ArrayList<>();
+            matcher.search(text, (start, patternId) -> whole.add(start + ":" + patternId));
+            SearchWorker.ChunkSearch search = matcher.engine().isMultiPattern()
+                    ? SearchWorker.namedMatches(matcher, text)
+                    : SearchWorker.indices(matcher, text);
+            check.expect("chunked " + matcher.engine() + " chunk=" + chunkSize, CheckSupport.sorted(whole),
+                    chunkedRows(search, text.length(), chunkSize), text, patterns);
+        }
+        String pattern = patterns.get(0);
+        int maxErrors = check.random.nextInt(pattern.length() / 2 + 2);
+        for (ApproximateMatcher.Mode mode : ApproximateMatcher.Mode.values()) {
+            ApproximateMatcher matcher = new ApproximateMatcher(pattern, maxErrors, mode);
+            List<String> whole = new ArrayList<>();
+            matcher.search(text, (end, errors) -> whole.add(
+                    (mode == ApproximateMatcher.Mode.MISMATCHES ? end - pattern.length() : end - 1) + ":" + errors));
+            check.expect("chunked " + mode + " k=" + maxErrors + " chunk=" + chunkSize, CheckSupport.sorted(whole),
+                    chunkedRows(SearchWorker.approximate(matcher, text), text.length(), chunkSize), text, pattern);
+        }
+    }
+
+    private static List<String> chunkedRows(SearchWorker.ChunkSearch search, int length, int chunkSize) {
+        List<String> rows = new ArrayList<>();
+        for (int from = 0; from < length; from += chunkSize) {
+            search.search(from, Math.min(from + chunkSize, length),
+                    (position, value) -> rows.add(position + ":" + value));
+        }
+        return CheckSupport.sorted(rows);
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.List;
+
+// Randomized cross-check of the matching engines against brute force and ReferenceAhoCorasick,
+// the trie the GUIs used to search with. Each round draws a short text and pattern set from a
+// small alphabet, so matches overlap, repeat and straddle chunk boundaries, and hands them to
+// every RoundCheck; the first disagreement is printed with its input and the run exits with
+// status 1. Run with:
+//   java EngineCheck [--rounds n] [--seed n]
+// (defaults: 1000 rounds, seed 1); add --add-modules jdk.incubator.vector to check the
+// Vector API kernels against the scalar ones as well.
+public class EngineCheck {
+    private static final String[] ALPHABETS = { "a", "ab", "abc", "ACGT", "a\u00e9\u4e2d\uD83D\uDE00" };
+
+    private final long seed;
+    private final CheckSupport check;
+    private final List<RoundCheck> roundChecks;
+
+    private EngineCheck(long seed) {
+        this.seed = seed;
+        this.check = new CheckSupport(seed);
+        this.roundChecks = List.of(
+                new AhoCorasickCheck(check),
+                new StreamingCheck(check),
+                new MappedFileCheck(check),
+                new ParallelCheck(check),
+                new SinglePatternCheck(check),
+                new PackedDnaCheck(check),
+                new KernelCheck(check),
+                new ApproximateCheck(check),
+                new SuffixArrayCheck(check),
+                new FmIndexCheck(check),
+                new ChunkSearchCheck(check),
+                new BatchSchedulerCheck(check),
+                new PlannerCheck(check),
+                new AhoCorasickDfaCheck(check),
+                new RabinKarpCheck(check),
+                new Utf8Check(check),
+                new MappedAutomatonCheck(check),
+                new LiveSearchCheck(check));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rounds = 1000;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rounds":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    usage();
+            }
+        }
+        if (rounds < 1) {
+            usage();
+        }
+        new EngineCheck(seed).run(rounds);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java EngineCheck [--rounds n >= 1] [--seed n]");
+        System.exit(2);
+    }
+
+    private void run(int rounds) throws Exception {
+        for (int round = 0; round < rounds; round++) {
+            String alphabet = ALPHABETS[check.random.nextInt(ALPHABETS.length)];
+            String text = check.randomText(alphabet, 300);
+            List<String> patterns = check.randomPatterns(alphabet, 8, 6);
+            for (RoundCheck roundCheck : roundChecks) {
+                roundCheck.run(round, alphabet, text, patterns);
+            }
+        }
+        System.out.printf("ok: %d checks over %d rounds (seed %d, %s kernels)%n", check.checks(), rounds, seed,
+                SimdSupport.isVectorized() ? "vector" : "scalar");
+    }
+}
@@ -0,0 +1,62 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// FM-index over DNA, built, reloaded and read back from FASTA, against brute force
+final class FmIndexCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    FmIndexCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws IOException {
+        checkFmIndex();
+    }
+
+    // Random checkpoint and sample rates, so rank and locate both walk between samples; soft-masked
+    // bases and N runs mixed in, and the same sequence also indexed from a line-wrapped FASTA file
+    private void checkFmIndex() throws IOException {
+        String[] alphabets = { "AC", "ACGT", "ACGTacgt", "ACGTN", "ACGTNNNNacgtR" };
+        String dna = check.randomText(alphabets[check.random.nextInt(alphabets.length)], 400);
+        int occRate = 32 * (1 + check.random.nextInt(3));
+        int saRate = 1 + check.random.nextInt(8);
+        FmIndex index = FmIndex.build(dna, occRate, saRate);
+        Path file = CheckSupport.tempFile();
+        index.save(file);
+        FmIndex loaded = FmIndex.load(file);
+        StringBuilder fasta = new StringBuilder(">chr1 random\n");
+        int width = 1 + check.random.nextInt(80);
+        for (int i = 0; i < dna.length(); i += width) {
+            fasta.append(dna, i, Math.min(dna.length(), i + width)).append(check.random.nextBoolean() ? "\n" : "\r\n");
+        }
+        Path fastaFile = CheckSupport.tempFile();
+        Files.writeString(fastaFile, fasta, StandardCharsets.US_ASCII);
+        byte[] bases = new byte[(int) Files.size(fastaFile)];
+        int length = FmIndex.readFasta(fastaFile, bases);
+        check.expect("FASTA read", dna, new String(bases, 0, length, StandardCharsets.US_ASCII), fasta.toString(), "");
+        FmIndex streamed = FmIndex.build(bases, length, occRate, saRate);
+        String upper = dna.toUpperCase();
+        for (int q = 0; q < 8; q++) {
+            String pattern = check.randomText("ACGT", 5);
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            List<Integer> expected = CheckSupport.bruteForce(upper, 0, upper.length(), pattern);
+            for (FmIndex candidate : List.of(index, loaded, streamed)) {
+                String which = (candidate == index ? "built" : candidate == loaded ? "loaded" : "from FASTA")
+                        + " occRate=" + occRate + " saRate=" + saRate;
+                check.expect("FM-index count (" + which + ")", expected.size(), candidate.count(pattern), dna, pattern);
+                List<Integer> positions = new ArrayList<>();
+                for (int position : candidate.locate(pattern)) {
+                    positions.add(position);
+                }
+                check.expect("FM-index locate (" + which + ")", expected, positions, dna, pattern);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+// Loaded SIMD kernels against the scalar ones they must agree with
+final class KernelCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    KernelCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkKernels();
+    }
+
+    // Whatever kernels were loaded against the scalar loops, on lengths around the vector widths
+    private void checkKernels() {
+        SimdSupport.Kernels scalar = new SimdSupport.ScalarKernels();
+        long[] a = new long[check.random.nextInt(20)];
+        long[] b = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = check.random.nextLong();
+            b[i] = check.random.nextBoolean() ? a[i] : a[i] ^ (check.random.nextLong() & check.random.nextLong());
+        }
+        check.expect("countDifferentBases", scalar.countDifferentBases(a, b),
+                SimdSupport.KERNELS.countDifferentBases(a, b), Arrays.toString(a), Arrays.toString(b));
+
+        // Sparse 'b's, so a search for them runs over several vectors before a hit or the tail
+        byte[] bytes = new byte[check.random.nextInt(300)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (check.random.nextInt(64) == 0 ? 'b' : 'a');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int from = check.random.nextInt(bytes.length + 1);
+        int to = from + check.random.nextInt(bytes.length - from + 1);
+        int m = 1 + check.random.nextInt(8);
+        byte first = (byte) ('a' + check.random.nextInt(2));
+        byte last = (byte) ('a' + check.random.nextInt(2));
+        String call = "indexOfCandidate [" + from + ", " + to + ") " + (char) first + (char) last + " m=" + m;
+        check.expect(call, scalar.indexOfCandidate(buffer, from, to, first, last, m),
+                SimdSupport.KERNELS.indexOfCandidate(buffer, from, to, first, last, m), new String(bytes), "");
+    }
+}
@@ -0,0 +1,70 @@
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.util.ArrayList;
+import java.util.List;
+
+// LiveSearch keeping a MatchResultView current under random document edits;
+// it builds Swing models, so only every 10th round
+final class LiveSearchCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    LiveSearchCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws BadLocationException {
+        if (round % 10 == 0) {
+            checkLiveSearch(text, alphabet, patterns);
+        }
+    }
+
+    // After every random insert or remove, the spliced result list must equal a fresh full search
+    private void checkLiveSearch(String text, String alphabet, List<String> patterns) throws BadLocationException {
+        List<TextMatcher> matchers = CheckSupport.matchers(patterns);
+        TextMatcher matcher = matchers.get(check.random.nextInt(matchers.size()));
+        SearchWorker.ChunkSearch search = matcher.engine().isMultiPattern()
+                ? SearchWorker.namedMatches(matcher, text)
+                : SearchWorker.indices(matcher, text);
+        PlainDocument document = new PlainDocument();
+        document.insertString(0, text, null);
+        MatchResultView view = new MatchResultView(5);
+        view.reset(search);
+        MatchBuffer initial = new MatchBuffer();
+        matcher.search(text, initial);
+        initial.sortByStart();
+        view.addMatches(initial);
+        LiveSearch live = new LiveSearch(document, matcher, view, new JLabel());
+        check.expect("live " + matcher.engine() + " start", true, live.start(), text, patterns);
+        for (int edit = 0; edit < 30; edit++) {
+            int length = document.getLength();
+            String change;
+            if (length > 0 && check.random.nextBoolean()) {
+                int offset = check.random.nextInt(length);
+                int removed = 1 + check.random.nextInt(Math.min(length - offset, 8));
+                change = "remove " + removed + " at " + offset;
+                document.remove(offset, removed);
+            } else {
+                int offset = check.random.nextInt(length + 1);
+                String inserted = check.randomText(alphabet, 6);
+                change = "insert \"" + inserted + "\" at " + offset;
+                document.insertString(offset, inserted, null);
+            }
+            String edited = document.getText(0, document.getLength());
+            List<String> expected = new ArrayList<>();
+            matcher.search(edited, (start, patternId) -> expected.add(search.format(start, patternId)));
+            MatchListModel model = view.model();
+            List<String> rows = new ArrayList<>();
+            boolean ordered = true;
+            for (int i = 0; i < model.getSize(); i++) {
+                rows.add(model.getElementAt(i));
+                ordered &= i == 0 || model.position(i - 1) <= model.position(i);
+            }
+            check.expect("live " + matcher.engine() + " after " + change, CheckSupport.sorted(expected),
+                    CheckSupport.sorted(rows), edited, patterns);
+            check.expect("live " + matcher.engine() + " row order after " + change, true, ordered, edited, patterns);
+        }
+        live.stop();
+    }
+}
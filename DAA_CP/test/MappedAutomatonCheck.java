@@ -0,0 +1,47 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Saved automata reopened as a memory-mapped MappedAhoCorasick, whole and streamed
+final class MappedAutomatonCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    MappedAutomatonCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws IOException {
+        checkMappedAutomaton(text, patterns);
+    }
+
+    // Saved and mapped back in, searched whole and streamed, in both automaton forms
+    private void checkMappedAutomaton(String text, List<String> patterns) throws IOException {
+        List<String> expected = CheckSupport.baseline(text, patterns);
+        for (CompactAhoCorasick automaton : List.of(CompactAhoCorasick.compile(patterns),
+                CompactAhoCorasick.compileDfa(patterns))) {
+            Path file = CheckSupport.tempFile();
+            automaton.save(file);
+            MappedAhoCorasick mapped = MappedAhoCorasick.load(file);
+            String what = "mapped " + mapped.engine();
+            check.expect(what + " engine", automaton.engine(), mapped.engine(), text, patterns);
+            List<String> loadedPatterns = new ArrayList<>();
+            for (int id = 0; id < mapped.patternCount(); id++) {
+                loadedPatterns.add(mapped.pattern(id));
+            }
+            check.expect(what + " patterns", patterns, loadedPatterns, text, patterns);
+            check.expect(what, expected, CheckSupport.found(mapped, text), text, patterns);
+            List<String> streamed = new ArrayList<>();
+            StreamingSearch search = StreamingSearch.of(mapped,
+                    (start, patternId) -> streamed.add(CheckSupport.format(start, mapped.pattern(patternId))));
+            int chunkSize = 1 + check.random.nextInt(16);
+            for (int from = 0; from < text.length(); from += chunkSize) {
+                char[] chunk = text.substring(from, Math.min(from + chunkSize, text.length())).toCharArray();
+                search.feed(chunk, chunk.length);
+            }
+            check.expect(what + " streamed chunk=" + chunkSize, expected, CheckSupport.sorted(streamed), text,
+                    patterns);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Memory-mapped byte search against brute force over the same bytes
+final class MappedFileCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    MappedFileCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws IOException {
+        checkMappedFile(text, patterns.get(0));
+    }
+
+    // Byte offsets in the UTF-8 file, with regions small enough that matches cross them
+    private void checkMappedFile(String text, String pattern) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Path file = CheckSupport.scratchFile(bytes);
+        int regionSize = 1 + check.random.nextInt(64);
+        List<Integer> expected = CheckSupport.bruteForce(bytes, pattern.getBytes(StandardCharsets.UTF_8));
+        List<Integer> boyerMoore = new ArrayList<>();
+        MappedFileSearch.search(file, new ByteBoyerMoore(pattern), regionSize,
+                (start, patternId) -> boyerMoore.add((int) start));
+        check.expect("mapped Boyer-Moore region=" + regionSize, expected, boyerMoore, text, pattern);
+        List<Integer> kmp = new ArrayList<>();
+        MappedFileSearch.search(file, new ByteKmp(pattern), regionSize, (start, patternId) -> kmp.add((int) start));
+        check.expect("mapped KMP region=" + regionSize, expected, kmp, text, pattern);
+    }
+}
@@ -0,0 +1,41 @@
+import java.util.List;
+
+// 2-bit packed DNA comparison against a char-by-char count
+final class PackedDnaCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    PackedDnaCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkPackedDna();
+    }
+
+    // Against the original char-by-char dnaMatch count, with soft-masked and ambiguous bases mixed in
+    private void checkPackedDna() {
+        String[] alphabets = { "ACGT", "ACGTNR", "ACGTacgt", "ACGTacgtN" };
+        String alphabet = alphabets[check.random.nextInt(alphabets.length)];
+        String first = check.randomText(alphabet, 300);
+        StringBuilder second = new StringBuilder(first);
+        for (int i = 0; i < second.length(); i++) {
+            if (check.random.nextInt(4) == 0) {
+                second.setCharAt(i, alphabet.charAt(check.random.nextInt(alphabet.length())));
+            }
+        }
+        int expected = 0;
+        for (int i = 0; i < first.length(); i++) {
+            if (first.charAt(i) == second.charAt(i)) {
+                expected++;
+            }
+        }
+        PackedDna packed = PackedDna.pack(first);
+        check.expect("PackedDna.countMatches", expected, packed.countMatches(PackedDna.pack(second)), first, second);
+        StringBuilder unpacked = new StringBuilder();
+        for (int i = 0; i < packed.length(); i++) {
+            unpacked.append(packed.baseAt(i));
+        }
+        check.expect("PackedDna.baseAt", first, unpacked.toString(), first, second);
+    }
+}
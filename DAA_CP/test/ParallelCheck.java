@@ -0,0 +1,39 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// ParallelSearch on a small pool against sequential search with the same matcher
+final class ParallelCheck implements RoundCheck {
+    private final CheckSupport check;
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    ParallelCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkParallel(text, patterns);
+    }
+
+    // Single-pattern engines must also keep the sequential order; sets are compared sorted
+    private void checkParallel(String text, List<String> patterns) {
+        int segmentSize = 1 + check.random.nextInt(32);
+        ParallelSearch parallel = new ParallelSearch(pool, segmentSize);
+        for (TextMatcher matcher : CheckSupport.matchers(patterns)) {
+            List<String> sequential = new ArrayList<>();
+            matcher.search(text, (start, patternId) ->
+                    sequential.add(CheckSupport.format(start, matcher.pattern(patternId))));
+            List<String> results = new ArrayList<>();
+            parallel.search(matcher, text, (start, patternId) ->
+                    results.add(CheckSupport.format(start, matcher.pattern(patternId))));
+            if (matcher.engine().isMultiPattern()) {
+                Collections.sort(sequential);
+                Collections.sort(results);
+            }
+            check.expect("parallel " + matcher.engine() + " segment=" + segmentSize, sequential, results, text,
+                    patterns);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+// Auto engine selection and the cost model it plans with
+final class PlannerCheck implements RoundCheck {
+    private final CheckSupport check;
+    private final EnginePlanner planner = new EnginePlanner();
+
+    PlannerCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws IOException {
+        if (round == 0) {
+            checkCostModel();
+        }
+        checkPlanner(text, check.random.nextBoolean() ? patterns : patterns.subList(0, 1));
+    }
+
+    // Saved under a comma-decimal default locale, the costs must still load back unchanged
+    private void checkCostModel() throws IOException {
+        EngineCostModel model = EngineCostModel.defaults();
+        Path file = CheckSupport.tempFile();
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            model.save(file);
+        } finally {
+            Locale.setDefault(previous);
+        }
+        EngineCostModel loaded = EngineCostModel.load(file);
+        for (MatchEngine engine : MatchEngine.values()) {
+            List<Double> expected = List.of(model.scanCost(engine), model.buildCost(engine));
+            check.expect("cost model " + engine, expected, List.of(loaded.scanCost(engine), loaded.buildCost(engine)),
+                    Files.readString(file), "");
+        }
+    }
+
+    // Whichever engine Auto picks, its matcher must find what the original trie finds
+    private void checkPlanner(String text, List<String> patterns) {
+        EnginePlanner.Plan plan = planner.plan(patterns, text);
+        check.expect("Auto (" + plan.engine() + ")", CheckSupport.baseline(text, patterns),
+                CheckSupport.found(plan.matcher(), text), text, patterns);
+    }
+}
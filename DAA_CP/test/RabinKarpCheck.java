@@ -0,0 +1,43 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Rolling-hash pattern set on a sub-range against brute force
+final class RabinKarpCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    RabinKarpCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkRabinKarp(text, alphabet, patterns);
+    }
+
+    // On DNA, also k-mers taken from the text around the 32-base packed limit, with N breaking windows
+    private void checkRabinKarp(String text, String alphabet, List<String> patterns) {
+        if (alphabet.equals("ACGT") && text.length() > 40 && check.random.nextBoolean()) {
+            patterns = new ArrayList<>();
+            int k = 20 + check.random.nextInt(21);
+            for (int i = 0; i < 1 + check.random.nextInt(8); i++) {
+                int at = check.random.nextInt(text.length() - k);
+                patterns.add(text.substring(at, at + k));
+            }
+            StringBuilder withGaps = new StringBuilder(text);
+            for (int i = 0; i < 3; i++) {
+                withGaps.setCharAt(check.random.nextInt(withGaps.length()), 'N');
+            }
+            text = withGaps.toString();
+        }
+        RabinKarpSet set = RabinKarpSet.compile(patterns);
+        String what = "Rabin-Karp" + (set.isDnaMode() ? " (2-bit)" : "");
+        check.expect(what, CheckSupport.baseline(text, patterns), CheckSupport.found(set, text), text, patterns);
+        int from = check.random.nextInt(text.length() + 1);
+        int to = from + check.random.nextInt(text.length() - from + 1);
+        List<String> results = new ArrayList<>();
+        set.search(text, from, to, (start, patternId) ->
+                results.add(CheckSupport.format(start, set.pattern(patternId))));
+        check.expect(what + " [" + from + ", " + to + ")", CheckSupport.bruteForce(text, from, to, patterns),
+                CheckSupport.sorted(results), text, patterns);
+    }
+}
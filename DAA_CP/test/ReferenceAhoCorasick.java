@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+// The HashMap trie StringMatchingGUI searched with before CompactAhoCorasick, kept unchanged as
+// the reference the checks compare the engines against.
+class ReferenceAhoCorasick {
+    private final TrieNode root = new TrieNode();
+
+    public void addPattern(String pattern) {
+        TrieNode node = root;
+        for (char c : pattern.toCharArray()) {
+            node = node.children.computeIfAbsent(c, k -> new TrieNode());
+        }
+        node.pattern = pattern;
+    }
+
+    public void buildFailureLinks() {
+        Queue<TrieNode> queue = new LinkedList<>();
+        for (TrieNode child : root.children.values()) {
+            child.failureLink = root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            TrieNode current = queue.poll();
+            for (Map.Entry<Character, TrieNode> entry : current.children.entrySet()) {
+                char c = entry.getKey();
+                TrieNode child = entry.getValue();
+                TrieNode failureLink = current.failureLink;
+                while (failureLink != null && !failureLink.children.containsKey(c)) {
+                    failureLink = failureLink.failureLink;
+                }
+                if (failureLink == null) {
+                    child.failureLink = root;
+                } else {
+                    child.failureLink = failureLink.children.get(c);
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    public List<String> search(String text) {
+        TrieNode node = root;
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != null && !node.children.containsKey(c)) {
+                node = node.failureLink;
+            }
+            if (node == null) {
+                node = root;
+                continue;
+            }
+            node = node.children.get(c);
+            TrieNode temp = node;
+            while (temp != root) {
+                if (temp.pattern != null) {
+                    results.add("Pattern found at index " + (i - temp.pattern.length() + 1) + ": " + temp.pattern);
+                }
+                temp = temp.failureLink;
+            }
+        }
+        return results;
+    }
+
+    static class TrieNode {
+        Map<Character, TrieNode> children = new HashMap<>();
+        TrieNode failureLink = null;
+        String pattern = null;
+    }
+}
+
+
@@ -0,0 +1,7 @@
+import java.util.List;
+
+// One engine's share of an EngineCheck round. Every check gets the round's alphabet, text and
+// pattern set; checks that are slow or draw their own input may skip rounds or ignore them.
+interface RoundCheck {
+    void run(int round, String alphabet, String text, List<String> patterns) throws Exception;
+}
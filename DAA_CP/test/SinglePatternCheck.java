@@ -0,0 +1,30 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Single-pattern engines on a sub-range of the text, in the order they report
+final class SinglePatternCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    SinglePatternCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkSinglePattern(text, patterns.get(0));
+    }
+
+    // Boyer-Moore, Horspool, Sunday, KMP and Z on a random [from, to) range, in report order
+    private void checkSinglePattern(String text, String pattern) {
+        int from = check.random.nextInt(text.length() + 1);
+        int to = from + check.random.nextInt(text.length() - from + 1);
+        List<Integer> expected = CheckSupport.bruteForce(text, from, to, pattern);
+        for (MatchEngine engine : MatchEngine.values()) {
+            if (!engine.isMultiPattern()) {
+                List<Integer> results = new ArrayList<>();
+                PatternCache.create(engine, pattern).search(text, from, to, (start, patternId) -> results.add(start));
+                check.expect(engine + " [" + from + ", " + to + ")", expected, results, text, pattern);
+            }
+        }
+    }
+}
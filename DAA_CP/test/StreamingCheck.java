@@ -0,0 +1,70 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Chunked StreamingSearch against a whole-text search, fed directly and through a byte channel
+final class StreamingCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    StreamingCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) {
+        checkStreaming(text, patterns);
+    }
+
+    // Chunks of random length up to the buffer size, so matches straddle one or several boundaries
+    private void checkStreaming(String text, List<String> patterns) {
+        int bufferSize = 1 + check.random.nextInt(16);
+        for (TextMatcher matcher : CheckSupport.matchers(patterns)) {
+            List<String> results = new ArrayList<>();
+            StreamingSearch search = StreamingSearch.of(matcher, (start, patternId) ->
+                    results.add(CheckSupport.format(start, matcher.pattern(patternId))), bufferSize);
+            char[] chars = text.toCharArray();
+            char[] chunk = new char[bufferSize];
+            for (int from = 0; from < chars.length; ) {
+                int length = Math.min(1 + check.random.nextInt(bufferSize), chars.length - from);
+                System.arraycopy(chars, from, chunk, 0, length);
+                search.feed(chunk, length);
+                from += length;
+            }
+            Collections.sort(results);
+            check.expect("streaming " + matcher.engine() + " buffer=" + bufferSize, CheckSupport.found(matcher, text),
+                    results, text, patterns);
+            check.expect("streaming " + matcher.engine() + " position", (long) text.length(), search.position(),
+                    text, patterns);
+            checkStreamingChannel(matcher, text, patterns, bufferSize);
+        }
+    }
+
+    // Through the channel overload, with a stray byte that is not UTF-8 spliced in half the time
+    private void checkStreamingChannel(TextMatcher matcher, String text, List<String> patterns, int bufferSize) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (check.random.nextBoolean()) {
+            int at = check.random.nextInt(bytes.length + 1);
+            byte[] spliced = new byte[bytes.length + 1];
+            System.arraycopy(bytes, 0, spliced, 0, at);
+            spliced[at] = (byte) 0xFF;
+            System.arraycopy(bytes, at, spliced, at + 1, bytes.length - at);
+            bytes = spliced;
+        }
+        String decoded = new String(bytes, StandardCharsets.UTF_8);
+        List<String> results = new ArrayList<>();
+        try {
+            StreamingSearch.search(Channels.newChannel(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8,
+                    matcher, bufferSize, (start, patternId) ->
+                            results.add(CheckSupport.format(start, matcher.pattern(patternId))));
+        } catch (IOException e) {
+            results.add(e.toString());
+        }
+        Collections.sort(results);
+        check.expect("streaming channel " + matcher.engine() + " buffer=" + bufferSize,
+                CheckSupport.found(matcher, decoded), results, decoded, patterns);
+    }
+}
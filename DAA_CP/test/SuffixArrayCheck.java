@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Suffix array index, built and reloaded from disk, against sorted substrings and brute force
+final class SuffixArrayCheck implements RoundCheck {
+    private final CheckSupport check;
+
+    SuffixArrayCheck(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws IOException {
+        checkSuffixArray(text, patterns);
+    }
+
+    // Suffix order against sorted substrings and LCP against a char-by-char walk, then count and locate
+    // on the built and the reloaded index
+    private void checkSuffixArray(String text, List<String> patterns) throws IOException {
+        SuffixArrayIndex index = SuffixArrayIndex.build(text);
+        List<Integer> expectedOrder = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            expectedOrder.add(i);
+        }
+        expectedOrder.sort((a, b) -> text.substring(a).compareTo(text.substring(b)));
+        List<Integer> order = new ArrayList<>();
+        for (int rank = 0; rank < index.length(); rank++) {
+            order.add(index.suffix(rank));
+        }
+        check.expect("suffix array order", expectedOrder, order, text, "");
+
+        Path file = CheckSupport.tempFile();
+        index.save(file);
+        SuffixArrayIndex loaded = SuffixArrayIndex.load(file);
+        List<Integer> expectedLcp = new ArrayList<>();
+        for (int rank = 0; rank < expectedOrder.size(); rank++) {
+            int shared = 0;
+            if (rank > 0) {
+                int a = expectedOrder.get(rank - 1), b = expectedOrder.get(rank);
+                while (Math.max(a, b) + shared < text.length() && text.charAt(a + shared) == text.charAt(b + shared)) {
+                    shared++;
+                }
+            }
+            expectedLcp.add(shared);
+        }
+        for (SuffixArrayIndex candidate : List.of(index, loaded)) {
+            List<Integer> lcp = new ArrayList<>();
+            for (int rank = 0; rank < candidate.length(); rank++) {
+                lcp.add(candidate.lcp(rank));
+            }
+            String which = candidate == index ? "built" : "loaded";
+            check.expect("suffix array lcp (" + which + ")", expectedLcp, lcp, text, "");
+        }
+        for (String pattern : patterns) {
+            List<Integer> expected = CheckSupport.bruteForce(text, 0, text.length(), pattern);
+            for (SuffixArrayIndex candidate : List.of(index, loaded)) {
+                String which = candidate == index ? "built" : "loaded";
+                check.expect("suffix array count (" + which + ")", expected.size(), candidate.count(pattern), text,
+                        pattern);
+                List<Integer> positions = new ArrayList<>();
+                for (int position : candidate.locate(pattern)) {
+                    positions.add(position);
+                }
+                check.expect("suffix array locate (" + which + ")", expected, positions, text, pattern);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// UTF-8 byte offsets mapped back to the char offsets the String engines report
+final class Utf8Check implements RoundCheck {
+    private final CheckSupport check;
+
+    Utf8Check(CheckSupport check) {
+        this.check = check;
+    }
+
+    @Override
+    public void run(int round, String alphabet, String text, List<String> patterns) throws IOException {
+        checkUtf8(text, patterns);
+    }
+
+    // Byte engines on the UTF-8 encoding, mapped back to char offsets, against the char-level results
+    private void checkUtf8(String text, List<String> patterns) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Path file = CheckSupport.scratchFile(bytes);
+        int regionSize = 1 + check.random.nextInt(64);
+        List<String> expected = CheckSupport.baseline(text, patterns);
+        for (ByteAhoCorasick automaton : List.of(ByteAhoCorasick.compile(patterns),
+                ByteAhoCorasick.compileDfa(patterns))) {
+            List<String> results = new ArrayList<>();
+            automaton.search(bytes, new Utf8Offsets(bytes).charOffsets(
+                    (start, patternId) -> results.add(CheckSupport.format(start, automaton.pattern(patternId)))));
+            check.expect("byte Aho-Corasick", expected, CheckSupport.sorted(results), text, patterns);
+            List<String> mapped = new ArrayList<>();
+            MappedFileSearch.search(file, automaton, regionSize, new Utf8Offsets(bytes).charOffsets(
+                    (start, patternId) -> mapped.add(CheckSupport.format(start, automaton.pattern(patternId)))));
+            check.expect("mapped byte Aho-Corasick region=" + regionSize, expected, CheckSupport.sorted(mapped), text,
+                    patterns);
+        }
+        String pattern = patterns.get(0);
+        List<Integer> starts = CheckSupport.bruteForce(text, 0, text.length(), pattern);
+        List<Integer> boyerMoore = new ArrayList<>();
+        new ByteBoyerMoore(pattern).search(bytes,
+                new Utf8Offsets(bytes).charOffsets((start, patternId) -> boyerMoore.add((int) start)));
+        check.expect("byte Boyer-Moore char offsets", starts, boyerMoore, text, pattern);
+        List<Integer> kmp = new ArrayList<>();
+        new ByteKmp(pattern).search(bytes,
+                new Utf8Offsets(bytes).charOffsets((start, patternId) -> kmp.add((int) start)));
+        check.expect("byte KMP char offsets", starts, kmp, text, pattern);
+    }
+}
@@ -0,0 +1,86 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+// Keeps a result view in step with a document while it is edited. A full SearchWorker pass
+// fills the view first; after that each insert or remove rescans only the edited region
+// widened by (longest pattern - 1) chars on each side, which covers every match the edit can
+// create or destroy. Matches to the right of the edit keep their rows and are shifted by the
+// change in length, so an edit costs the rescan plus an array shift, not a new search.
+public class LiveSearch implements DocumentListener {
+    private final Document document;
+    private final TextMatcher matcher;
+    private final MatchResultView view;
+    private final JLabel statusLabel;
+    private boolean ready = false;
+    private boolean stale = false;
+
+    // Starts listening at once so edits made during the full search are noticed
+    public LiveSearch(Document document, TextMatcher matcher, MatchResultView view, JLabel statusLabel) {
+        this.document = document;
+        this.matcher = matcher;
+        this.view = view;
+        this.statusLabel = statusLabel;
+        document.addDocumentListener(this);
+    }
+
+    // Called when the full search has filled the view. Returns false if the document changed
+    // in the meantime; the view is then out of date and the caller must search again.
+    public boolean start() {
+        ready = !stale;
+        return ready;
+    }
+
+    public void stop() {
+        ready = false;
+        document.removeDocumentListener(this);
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        update(e.getOffset(), 0, e.getLength());
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        update(e.getOffset(), e.getLength(), 0);
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Attribute changes leave the text alone
+    }
+
+    // Rows starting in [from, offset + removed) of the old text are replaced by the matches now
+    // starting in [from, offset + inserted); a match starting there ends at most overlap chars
+    // further on, so that is as far as the rescan reads.
+    private void update(int offset, int removed, int inserted) {
+        if (!ready) {
+            stale = true;
+            return;
+        }
+        long startNanos = System.nanoTime();
+        int overlap = Math.max(0, matcher.maxPatternLength() - 1);
+        int from = Math.max(0, offset - overlap);
+        int editEnd = offset + inserted;
+        int to = Math.min(document.getLength(), editEnd + overlap);
+        String window;
+        try {
+            window = document.getText(from, to - from);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+        MatchBuffer found = new MatchBuffer();
+        matcher.search(window, (start, patternId) -> {
+            if (from + start < editEnd) {
+                found.onMatch(from + start, patternId);
+            }
+        });
+        found.sortByStart();
+        view.replaceMatches(from, offset + removed, inserted - removed, found);
+        statusLabel.setText(String.format("Live: %,d matches, rescanned %,d chars in %.2f ms",
+                view.model().getSize(), window.length(), (System.nanoTime() - startNanos) / 1e6));
+    }
+}
@@ -0,0 +1,79 @@
+import javax.swing.*;
+
+// List model over a primitive MatchBuffer. Rows are (position, value) pairs and are only
+// turned into text when the list asks for a visible row, so a million matches cost two
+// int arrays rather than a million Strings.
+public class MatchListModel extends AbstractListModel<String> {
+    private static final long serialVersionUID = 1L;
+
+    // Formats one row on demand; value is a pattern id or an error count depending on the search
+    public interface RowFormatter {
+        String format(int position, int value);
+    }
+
+    private final MatchBuffer matches = new MatchBuffer(1024);
+    private RowFormatter formatter = (position, value) -> "Pattern found at index: " + position;
+
+    @Override
+    public int getSize() {
+        return matches.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return formatter.format(matches.start(index), matches.patternId(index));
+    }
+
+    public int position(int index) {
+        return matches.start(index);
+    }
+
+    public void reset(RowFormatter formatter) {
+        int size = matches.size();
+        matches.clear();
+        this.formatter = formatter;
+        if (size > 0) {
+            fireIntervalRemoved(this, 0, size - 1);
+        }
+    }
+
+    // Appends a batch; batches must arrive in position order for indexOfPosition to hold
+    public void addAll(MatchBuffer batch) {
+        int first = matches.size();
+        matches.addAll(batch);
+        if (matches.size() > first) {
+            fireIntervalAdded(this, first, matches.size() - 1);
+        }
+    }
+
+    // Replaces the rows starting in [from, to) with the given rows and shifts the rows after
+    // them by delta; the replacement must be sorted and fall between its neighbours
+    public void replace(int from, int to, int delta, MatchBuffer replacement) {
+        int first = indexOfPosition(from);
+        int oldSize = matches.size();
+        matches.splice(first, indexOfPosition(to), replacement, delta);
+        int newSize = matches.size();
+        if (Math.min(oldSize, newSize) > first) {
+            fireContentsChanged(this, first, Math.min(oldSize, newSize) - 1);
+        }
+        if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        } else if (newSize < oldSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        }
+    }
+
+    // First row at or after the given position, or getSize() if there is none
+    public int indexOfPosition(int position) {
+        int lo = 0, hi = matches.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (matches.start(mid) < position) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,92 @@
+import javax.swing.*;
+import java.awt.*;
+
+// Result panel for the search screens: a summary header, a lazily rendered match list and
+// a jump-to-offset field. The list uses a fixed cell size so painting and scrolling only
+// touch the visible rows, however many matches the model holds.
+public class MatchResultView extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final String PROTOTYPE_ROW = "Pattern found at index 0000000000: pattern pattern";
+
+    private final MatchListModel model = new MatchListModel();
+    private final JList<String> list = new JList<>(model);
+    private final JLabel summaryLabel = new JLabel(" ");
+    private final JTextField offsetField = new JTextField(10);
+
+    public MatchResultView(int visibleRows) {
+        super(new BorderLayout());
+        list.setPrototypeCellValue(PROTOTYPE_ROW);
+        list.setVisibleRowCount(visibleRows);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        JButton goButton = new JButton("Go");
+        JPanel header = new JPanel(new BorderLayout(5, 0));
+        JPanel jumpPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        jumpPanel.add(new JLabel("Jump to offset:"));
+        jumpPanel.add(offsetField);
+        jumpPanel.add(goButton);
+        header.add(summaryLabel, BorderLayout.CENTER);
+        header.add(jumpPanel, BorderLayout.EAST);
+
+        add(header, BorderLayout.NORTH);
+        add(new JScrollPane(list), BorderLayout.CENTER);
+
+        goButton.addActionListener(e -> jumpToOffset());
+        offsetField.addActionListener(e -> jumpToOffset());
+    }
+
+    // Clears the list for a new search whose rows are formatted by the given formatter
+    public void reset(MatchListModel.RowFormatter formatter) {
+        model.reset(formatter);
+        updateSummary();
+    }
+
+    // Clears the list and shows a message in the header instead
+    public void showMessage(String message) {
+        model.reset((position, value) -> "");
+        summaryLabel.setText(message);
+    }
+
+    public void addMatches(MatchBuffer batch) {
+        model.addAll(batch);
+        updateSummary();
+    }
+
+    // Live update after an edit; see MatchListModel.replace
+    public void replaceMatches(int from, int to, int delta, MatchBuffer replacement) {
+        model.replace(from, to, delta, replacement);
+        updateSummary();
+    }
+
+    public MatchListModel model() {
+        return model;
+    }
+
+    private void updateSummary() {
+        int size = model.getSize();
+        if (size == 0) {
+            summaryLabel.setText("No matches");
+        } else {
+            summaryLabel.setText(String.format("%,d matches, first at %,d, last at %,d", size, model.position(0),
+                    model.position(size - 1)));
+        }
+    }
+
+    // Selects and scrolls to the first match at or after the typed offset
+    private void jumpToOffset() {
+        int size = model.getSize();
+        if (size == 0) {
+            return;
+        }
+        int offset;
+        try {
+            offset = Integer.parseInt(offsetField.getText().trim().replace(",", ""));
+        } catch (NumberFormatException e) {
+            Toolkit.getDefaultToolkit().beep();
+            return;
+        }
+        int index = Math.min(model.indexOfPosition(offset), size - 1);
+        list.setSelectedIndex(index);
+        list.ensureIndexIsVisible(index);
+    }
+}
@@ -0,0 +1,188 @@
+import javax.swing.*;
+import java.util.List;
+
+// Runs a search off the event dispatch thread one chunk of text at a time, so a large
+// paste never freezes the window. Each chunk's matches are published as one primitive
+// batch and appended to the result view, the progress bar tracks the chunks done, and the
+// status label shows elapsed time and throughput. cancel(true) stops the scan at the next chunk.
+public class SearchWorker extends SwingWorker<Integer, MatchBuffer> {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    // Searches the chunk [from, end) and reports each match that belongs to it as a
+    // (position, value) row; implementations read past the chunk bounds as far as a match
+    // can reach. format() turns a reported row into the text the result list shows.
+    public interface ChunkSearch extends MatchListModel.RowFormatter {
+        void search(int from, int end, MatchSink sink);
+
+        // The exact matcher behind the search, for LiveSearch; null when rows are not plain matches
+        default TextMatcher matcher() {
+            return null;
+        }
+    }
+
+    private final int length;
+    private final ChunkSearch search;
+    private final int chunkSize;
+    private final MatchResultView view;
+    private final JLabel statusLabel;
+    private final Runnable onFinish;
+    private final long startNanos = System.nanoTime();
+    private volatile int searched;
+    private volatile int matchCount;
+
+    public SearchWorker(int length, ChunkSearch search, MatchResultView view, JProgressBar progressBar,
+                        JLabel statusLabel, Runnable onFinish) {
+        this(length, search, DEFAULT_CHUNK_SIZE, view, progressBar, statusLabel, onFinish);
+    }
+
+    public SearchWorker(int length, ChunkSearch search, int chunkSize, MatchResultView view, JProgressBar progressBar,
+                        JLabel statusLabel, Runnable onFinish) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.length = length;
+        this.search = search;
+        this.chunkSize = chunkSize;
+        this.view = view;
+        this.statusLabel = statusLabel;
+        this.onFinish = onFinish;
+        view.reset(search);
+        progressBar.setValue(0);
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+    }
+
+    // Single-pattern engines: "Pattern found at index: N" per match
+    public static ChunkSearch indices(TextMatcher matcher, String text) {
+        return new ChunkSearch() {
+            public void search(int from, int end, MatchSink sink) {
+                searchChunk(matcher, text, from, end, sink);
+            }
+
+            public TextMatcher matcher() {
+                return matcher;
+            }
+
+            public String format(int position, int value) {
+                return "Pattern found at index: " + position;
+            }
+        };
+    }
+
+    // Pattern sets: "Pattern found at index N: pattern" per match
+    public static ChunkSearch namedMatches(TextMatcher matcher, String text) {
+        return new ChunkSearch() {
+            public void search(int from, int end, MatchSink sink) {
+                searchChunk(matcher, text, from, end, sink);
+            }
+
+            public TextMatcher matcher() {
+                return matcher;
+            }
+
+            public String format(int position, int value) {
+                return "Pattern found at index " + position + ": " + matcher.pattern(value);
+            }
+        };
+    }
+
+    // Approximate matches belong to the chunk their end falls in. An occurrence with at most k
+    // errors spans at most m + k chars, so that much of the previous chunk is rescanned.
+    // Rows are (start, mismatches) for Hamming matches and (last index, edits) for edit matches.
+    public static ChunkSearch approximate(ApproximateMatcher matcher, String text) {
+        int m = matcher.pattern().length();
+        int lookBehind = m + matcher.maxErrors();
+        boolean mismatches = matcher.mode() == ApproximateMatcher.Mode.MISMATCHES;
+        return new ChunkSearch() {
+            public void search(int from, int end, MatchSink sink) {
+                matcher.search(text, Math.max(0, from - lookBehind), end, (matchEnd, errors) -> {
+                    if (matchEnd > from || from == 0) {
+                        sink.onMatch(mismatches ? matchEnd - m : matchEnd - 1, errors);
+                    }
+                });
+            }
+
+            public String format(int position, int value) {
+                return mismatches
+                        ? "Pattern found at index: " + position + " (" + value + " mismatches)"
+                        : "Pattern ends at index: " + position + " (" + value + " edits)";
+            }
+        };
+    }
+
+    // Same boundary rule as ParallelSearch: read maxPatternLength - 1 chars past the chunk
+    // but only keep matches starting inside it
+    private static void searchChunk(TextMatcher matcher, String text, int from, int end, MatchSink sink) {
+        int to = (int) Math.min((long) end + Math.max(0, matcher.maxPatternLength() - 1), text.length());
+        matcher.search(text, from, to, (start, patternId) -> {
+            if (start < end) {
+                sink.onMatch(start, patternId);
+            }
+        });
+    }
+
+    @Override
+    protected Integer doInBackground() {
+        int count = 0;
+        for (int from = 0; from < length; from += chunkSize) {
+            if (isCancelled()) {
+                break;
+            }
+            int end = (int) Math.min((long) from + chunkSize, length);
+            MatchBuffer batch = new MatchBuffer();
+            search.search(from, end, batch);
+            count += batch.size();
+            matchCount = count;
+            searched = end;
+            // The chunk search can take a while; don't hand a stale batch to the view
+            if (isCancelled()) {
+                break;
+            }
+            if (!batch.isEmpty()) {
+                batch.sortByStart();
+                publish(batch);
+            }
+            setProgress((int) (100L * end / length));
+        }
+        return count;
+    }
+
+    @Override
+    protected void process(List<MatchBuffer> batches) {
+        // Batches published just before cancel() can still arrive after the view was reset
+        if (isCancelled()) {
+            return;
+        }
+        MatchBuffer merged = batches.get(0);
+        for (int i = 1; i < batches.size(); i++) {
+            merged.addAll(batches.get(i));
+        }
+        view.addMatches(merged);
+        statusLabel.setText(status("Searching"));
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            statusLabel.setText(status("Cancelled"));
+        } else {
+            try {
+                get();
+                statusLabel.setText(status("Done"));
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                statusLabel.setText("Search failed: " + cause);
+            }
+        }
+        onFinish.run();
+    }
+
+    private String status(String state) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return String.format("%s: %,d matches, %,d of %,d chars in %.2f s (%.1f M chars/s)", state, matchCount,
+                searched, length, seconds, seconds > 0 ? searched / seconds / 1e6 : 0.0);
+    }
+}